@@ -0,0 +1,25 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hogwarts.school.dto.AvatarDTO;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvatarServiceBenchmark {
+
+    @Benchmark
+    public AvatarDTO readAvatar(SchoolState state) {
+        return state.avatarService.getAvatar(1);
+    }
+
+    @Benchmark
+    public void writeAvatar(SchoolState state) throws IOException {
+        state.avatarService.addAvatar(2, state.avatar);
+    }
+}
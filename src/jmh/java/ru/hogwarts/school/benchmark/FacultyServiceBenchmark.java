@@ -0,0 +1,25 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hogwarts.school.dto.FacultyDTO;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacultyServiceBenchmark {
+
+    @Benchmark
+    public Collection<FacultyDTO> searchByName(SchoolState state) {
+        return state.facultyService.getFaculties("ulty 1", 1, 10);
+    }
+
+    @Benchmark
+    public Collection<FacultyDTO> searchByColor(SchoolState state) {
+        return state.facultyService.getFaculties("green", 1, 10);
+    }
+}
@@ -0,0 +1,28 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hogwarts.school.enums.SumMode;
+import ru.hogwarts.school.service.InfoService;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InfoServiceBenchmark {
+    private final InfoService infoService = new InfoService();
+
+    @Param({"1000000", "100000000"})
+    public long n;
+
+    @Param({"ITERATE", "RANGE", "PARALLEL", "FORMULA"})
+    public SumMode mode;
+
+    @Benchmark
+    public long sum() {
+        return infoService.sum(n, mode).getSum();
+    }
+}
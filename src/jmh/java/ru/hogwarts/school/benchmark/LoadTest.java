@@ -0,0 +1,74 @@
+package ru.hogwarts.school.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadTest {
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    private final AtomicLong errors = new AtomicLong();
+    private final HttpRequest request;
+    private final long deadline;
+
+    private LoadTest(URI uri, Duration duration) {
+        this.request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        this.deadline = System.nanoTime() + duration.toNanos();
+    }
+
+    public static void main(String[] args) {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/students?limit=10");
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+
+        LoadTest loadTest = new LoadTest(uri, duration);
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> workers = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            workers.add(loadTest.next());
+        }
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+        loadTest.report(uri, connections, System.nanoTime() - start);
+    }
+
+    private CompletableFuture<Void> next() {
+        if (System.nanoTime() >= deadline) return CompletableFuture.completedFuture(null);
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, e) -> {
+                    if (e != null || response.statusCode() >= 400) {
+                        errors.incrementAndGet();
+                    } else {
+                        latencies.add(System.nanoTime() - sent);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> next());
+    }
+
+    private void report(URI uri, int connections, long elapsed) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        double seconds = elapsed / 1e9;
+        System.out.printf("%s, %d connections, %.1fs%n", uri, connections, seconds);
+        System.out.printf("requests: %d, errors: %d, throughput: %.0f req/s%n",
+                sorted.length, errors.get(), sorted.length / seconds);
+        if (sorted.length > 0) {
+            System.out.printf("latency p50: %.1fms, p95: %.1fms, p99: %.1fms, max: %.1fms%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * (sorted.length - 1)))] / 1e6;
+    }
+}
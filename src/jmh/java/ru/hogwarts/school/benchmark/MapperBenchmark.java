@@ -0,0 +1,77 @@
+package ru.hogwarts.school.benchmark;
+
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
+import org.openjdk.jmh.annotations.*;
+import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.mapper.FacultyMapper;
+import ru.hogwarts.school.mapper.StudentMapper;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param("10000")
+    private int size;
+
+    private List<Student> students;
+    private List<Faculty> faculties;
+    private ModelMapper modelMapper;
+    private Type studentDTOsType;
+    private Type facultyDTOsType;
+
+    @Setup
+    public void setUp() {
+        students = new ArrayList<>(size);
+        faculties = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Faculty faculty = new Faculty()
+                    .setId(i)
+                    .setName("Faculty " + i)
+                    .setColor("Color " + i);
+            faculties.add(faculty);
+            students.add(new Student()
+                    .setId(i)
+                    .setName("Student " + i)
+                    .setAge(11 + i % 7)
+                    .setFaculty(faculty));
+        }
+        modelMapper = new ModelMapper();
+        studentDTOsType = new TypeToken<Collection<StudentDTO>>() {
+        }.getType();
+        facultyDTOsType = new TypeToken<Collection<FacultyDTO>>() {
+        }.getType();
+    }
+
+    @Benchmark
+    public Collection<StudentDTO> studentsModelMapper() {
+        return modelMapper.map(students, studentDTOsType);
+    }
+
+    @Benchmark
+    public Collection<StudentDTO> studentsHandWritten() {
+        return StudentMapper.mapToDTO(students);
+    }
+
+    @Benchmark
+    public Collection<FacultyDTO> facultiesModelMapper() {
+        return modelMapper.map(faculties, facultyDTOsType);
+    }
+
+    @Benchmark
+    public Collection<FacultyDTO> facultiesHandWritten() {
+        return FacultyMapper.mapToDTO(faculties);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+import ru.hogwarts.school.SchoolApplication;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.AvatarService;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.StudentService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+@State(Scope.Benchmark)
+public class SchoolState {
+    private static final String AVATAR = "src/test/java/resources/test_avatar.png";
+
+    @Param({"1000", "100000", "1000000"})
+    public int students;
+
+    public StudentService studentService;
+    public FacultyService facultyService;
+    public AvatarService avatarService;
+    public Collection<Student> studentEntities;
+    public MockMultipartFile avatar;
+
+    private ConfigurableApplicationContext context;
+    private Path avatarDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        avatarDir = Files.createTempDirectory("avatars");
+        context = new SpringApplicationBuilder(SchoolApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "avatars.folder.path=" + avatarDir + "/",
+                        "logging.level.root=WARN",
+                        "logging.level.ru.hogwarts.school=WARN")
+                .run();
+        seed(context.getBean(JdbcTemplate.class));
+
+        studentService = context.getBean(StudentService.class);
+        facultyService = context.getBean(FacultyService.class);
+        avatarService = context.getBean(AvatarService.class);
+        studentEntities = context.getBean(StudentRepository.class).findAll();
+        avatar = new MockMultipartFile("avatar", "test_avatar.png", "image/png", Files.readAllBytes(Path.of(AVATAR)));
+        avatarService.addAvatar(1, avatar);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(avatarDir);
+    }
+
+    public int faculties() {
+        return Math.max(4, students / 100);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        int faculties = faculties();
+        jdbcTemplate.update("INSERT INTO faculty (id, name, color) " +
+                "SELECT X, CONCAT('Faculty ', X), CASEWHEN(MOD(X, 2) = 0, 'Green', 'Scarlet') " +
+                "FROM SYSTEM_RANGE(1, ?)", faculties);
+        jdbcTemplate.update("INSERT INTO student (id, name, age, faculty_id) " +
+                "SELECT X, CONCAT('Student ', X), 11 + MOD(X, 7), 1 + MOD(X, ?) " +
+                "FROM SYSTEM_RANGE(1, ?)", faculties, students);
+        jdbcTemplate.execute("ALTER SEQUENCE faculty_seq RESTART WITH " + (faculties + 1000));
+        jdbcTemplate.execute("ALTER SEQUENCE student_seq RESTART WITH " + (students + 1000));
+    }
+}
@@ -0,0 +1,31 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.mapper.StudentMapper;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentServiceBenchmark {
+
+    @Benchmark
+    public Collection<StudentDTO> mapStudents(SchoolState state) {
+        return StudentMapper.mapToDTO(state.studentEntities);
+    }
+
+    @Benchmark
+    public Collection<String> namesStartingWith(SchoolState state) {
+        return state.studentService.getNamesStartingWith("Student 42", 10, 0);
+    }
+
+    @Benchmark
+    public double averageAgeOfStudents(SchoolState state) {
+        return state.studentService.getAverageAgeOfStudents();
+    }
+}
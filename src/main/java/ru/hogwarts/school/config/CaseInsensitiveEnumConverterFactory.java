@@ -0,0 +1,22 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.converter.ConverterFactory;
+
+// Binds request parameters such as ?mode=range to enum constants regardless of case. Unknown values
+// fail conversion and are answered with Spring's standard 400 Bad Request.
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class CaseInsensitiveEnumConverterFactory implements ConverterFactory<String, Enum> {
+
+    @Override
+    public <T extends Enum> Converter<String, T> getConverter(Class<T> targetType) {
+        return source -> {
+            String name = source.trim();
+            if (name.isEmpty()) return null;
+            for (T constant : targetType.getEnumConstants()) {
+                if (constant.name().equalsIgnoreCase(name)) return constant;
+            }
+            throw new IllegalArgumentException("No enum constant " + targetType.getSimpleName() + "." + name);
+        };
+    }
+}
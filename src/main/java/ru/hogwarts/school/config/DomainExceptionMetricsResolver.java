@@ -0,0 +1,28 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class DomainExceptionMetricsResolver implements HandlerExceptionResolver {
+    private static final String DOMAIN_EXCEPTION_PACKAGE = "ru.hogwarts.school.exception";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (ex.getClass().getPackageName().equals(DOMAIN_EXCEPTION_PACKAGE)) {
+            meterRegistry.counter("school.exceptions", "exception", ex.getClass().getSimpleName()).increment();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.hogwarts.school.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+public class RequestLoggingFilter extends OncePerRequestFilter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestLoggingFilter.class);
+    private static final String START_ATTRIBUTE = RequestLoggingFilter.class.getName() + ".START";
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RequestLoggingFilter(@Value("${logging.requests.sample-rate:0.01}") double sampleRate,
+                                @Value("${logging.requests.slow-threshold:500ms}") Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = request.getAttribute(START_ATTRIBUTE) instanceof Long started ? started : System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            log(request, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, System.nanoTime() - start, e);
+            throw e;
+        }
+        if (isAsyncStarted(request)) {
+            request.setAttribute(START_ATTRIBUTE, start);
+            return;
+        }
+        log(request, response.getStatus(), System.nanoTime() - start, null);
+    }
+
+    private void log(HttpServletRequest request, int status, long elapsed, Throwable failure) {
+        Level level = levelOf(status, elapsed);
+        if (level == null) return;
+        long durationMs = elapsed / 1_000_000;
+        LOGGER.atLevel(level)
+                .setCause(failure)
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("uri", request.getRequestURI())
+                .addKeyValue("status", status)
+                .addKeyValue("durationMs", durationMs)
+                .log("{} {} {} {}ms", request.getMethod(), request.getRequestURI(), status, durationMs);
+    }
+
+    private Level levelOf(int status, long elapsed) {
+        if (status >= 500) return Level.ERROR;
+        if (elapsed >= slowThresholdNanos) return Level.WARN;
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) return Level.INFO;
+        return null;
+    }
+}
@@ -1,21 +1,24 @@
 package ru.hogwarts.school.controller;
 
-import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import ru.hogwarts.school.dto.AvatarDTO;
+import ru.hogwarts.school.enums.ThumbnailSize;
 import ru.hogwarts.school.service.AvatarService;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/avatars")
@@ -23,6 +26,9 @@ import java.util.Collection;
 public class AvatarController {
     private final AvatarService avatarService;
 
+    @Value("${avatars.cache.max-age:1h}")
+    private Duration cacheMaxAge;
+
     @PostMapping(value = "/{studentId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<String> uploadAvatar(@PathVariable long studentId, @RequestParam MultipartFile avatar) throws IOException {
         if (avatar.isEmpty()) return ResponseEntity.badRequest().body("file is empty");
@@ -32,14 +38,24 @@ public class AvatarController {
     }
 
     @GetMapping("/{studentId}")
-    public void getAvatarByStudentId(@PathVariable long studentId, HttpServletResponse response) throws IOException {
+    public ResponseEntity<Resource> getAvatarByStudentId(@PathVariable long studentId,
+                                                         @RequestParam(required = false) ThumbnailSize size,
+                                                         @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                         WebRequest webRequest) {
         AvatarDTO avatarDTO = avatarService.getAvatar(studentId);
-        response.setStatus(HttpServletResponse.SC_OK);
-        response.setContentType(avatarDTO.getMediaType());
-        response.setContentLength(avatarDTO.getSize());
-        try (OutputStream out = response.getOutputStream()) {
-            Files.copy(Path.of(avatarDTO.getPath()), out);
+        if (size != null) {
+            Optional<AvatarDTO> thumbnail = avatarService.getThumbnail(avatarDTO, size);
+            if (thumbnail.isEmpty()) {
+                return ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .contentType(MediaType.parseMediaType(avatarDTO.getMediaType()))
+                        .body(served(avatarDTO, range, null));
+            }
+            avatarDTO = thumbnail.get();
         }
+        return cacheable(avatarDTO)
+                .contentType(MediaType.parseMediaType(avatarDTO.getMediaType()))
+                .body(served(avatarDTO, range, webRequest));
     }
 
     @GetMapping
@@ -48,10 +64,34 @@ public class AvatarController {
     }
 
     @GetMapping(value = "/{studentId}/download", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    public ResponseEntity<byte[]> downloadAvatar(@PathVariable long studentId) throws IOException {
+    public ResponseEntity<Resource> downloadAvatar(@PathVariable long studentId,
+                                                   @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                   WebRequest webRequest) {
         AvatarDTO avatarDTO = avatarService.getAvatar(studentId);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentDispositionFormData("attachment", avatarDTO.getName());
-        return ResponseEntity.status(HttpStatus.OK).headers(headers).body(avatarDTO.getData());
+        ContentDisposition contentDisposition = ContentDisposition.attachment()
+                .filename(avatarDTO.getName())
+                .build();
+        return cacheable(avatarDTO)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .headers(headers -> headers.setContentDisposition(contentDisposition))
+                .body(served(avatarDTO, range, webRequest));
+    }
+
+    // A conditional request answered with 304 sends no body, so only count bytes when the validators do not match.
+    private Resource served(AvatarDTO avatarDTO, String range, WebRequest conditional) {
+        Resource resource = avatarService.getAvatarResource(avatarDTO);
+        long modifiedAt = avatarDTO.getModifiedAt() == null ? -1 : avatarDTO.getModifiedAt().toEpochMilli();
+        if (conditional == null || !conditional.checkNotModified(avatarDTO.getContentHash(), modifiedAt)) {
+            avatarService.recordBytesServed(resource, range);
+        }
+        return resource;
+    }
+
+    private ResponseEntity.BodyBuilder cacheable(AvatarDTO avatarDTO) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(cacheMaxAge).cachePublic());
+        if (avatarDTO.getContentHash() != null) builder.eTag(avatarDTO.getContentHash());
+        if (avatarDTO.getModifiedAt() != null) builder.lastModified(avatarDTO.getModifiedAt());
+        return builder;
     }
 }
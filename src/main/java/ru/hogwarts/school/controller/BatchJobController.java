@@ -0,0 +1,38 @@
+package ru.hogwarts.school.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.hogwarts.school.dto.BatchJobDTO;
+import ru.hogwarts.school.enums.BatchJobType;
+import ru.hogwarts.school.service.StudentBatchService;
+
+import java.util.Collection;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/batch-jobs")
+@RequiredArgsConstructor
+public class BatchJobController {
+    private final StudentBatchService studentBatchService;
+
+    @PostMapping
+    public ResponseEntity<BatchJobDTO> startJob(@RequestParam BatchJobType type) {
+        return ResponseEntity.accepted().body(studentBatchService.start(type));
+    }
+
+    @GetMapping
+    public Collection<BatchJobDTO> getJobs() {
+        return studentBatchService.getJobs();
+    }
+
+    @GetMapping("/{id}")
+    public BatchJobDTO getJob(@PathVariable UUID id) {
+        return studentBatchService.getJob(id);
+    }
+
+    @DeleteMapping("/{id}")
+    public BatchJobDTO cancelJob(@PathVariable UUID id) {
+        return studentBatchService.cancel(id);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.hogwarts.school.controller;
+
+import ru.hogwarts.school.exception.InvalidParamsException;
+
+final class ETags {
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static long requireVersion(String ifMatch) {
+        Long version = parseVersion(ifMatch);
+        if (version == null) throw new InvalidParamsException();
+        return version;
+    }
+
+    static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) tag = tag.substring(1, tag.length() - 1);
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new InvalidParamsException();
+        }
+    }
+}
@@ -1,13 +1,25 @@
 package ru.hogwarts.school.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.BatchImportResultDTO;
 import ru.hogwarts.school.dto.FacultyDTO;
-import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.dto.FacultyPatchDTO;
+import ru.hogwarts.school.dto.FacultyStatisticsDTO;
+import ru.hogwarts.school.service.BulkDataService;
 import ru.hogwarts.school.service.FacultyService;
 import ru.hogwarts.school.service.StudentService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -15,25 +27,50 @@ import java.util.Collection;
 public class FacultyController {
     private final FacultyService facultyService;
     private final StudentService studentService;
+    private final BulkDataService bulkDataService;
 
     @PostMapping
     public FacultyDTO createFaculty(@RequestBody FacultyDTO facultyDTO) {
         return facultyService.add(facultyDTO);
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public BatchImportResultDTO importFacultiesCsv(InputStream csv) throws IOException {
+        return bulkDataService.importFaculties(csv);
+    }
+
+    @GetMapping(value = "/export", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportFacultiesCsv() {
+        StreamingResponseBody body = bulkDataService::exportFaculties;
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("text/csv")).body(body);
+    }
+
     @GetMapping
-    public Collection<FacultyDTO> getFaculties(@RequestParam(required = false) String search_term) {
-        return facultyService.getFaculties(search_term);
+    public Collection<FacultyDTO> getFaculties(@RequestParam(required = false) String search_term,
+                                               @RequestParam(defaultValue = "1") int numOfPage,
+                                               @RequestParam(defaultValue = "10") int size) {
+        return facultyService.getFaculties(search_term, numOfPage, size);
+    }
+
+    @GetMapping("/stats")
+    public Collection<FacultyStatisticsDTO> getStatistics() {
+        return facultyService.getStatistics();
     }
 
     @GetMapping("/{id}")
-    public FacultyDTO getFacultyById(@PathVariable long id) {
-        return facultyService.getById(id);
+    public ResponseEntity<FacultyDTO> getFacultyById(@PathVariable long id) {
+        FacultyDTO faculty = facultyService.getById(id);
+        return ResponseEntity.ok().eTag(ETags.of(faculty.getVersion())).body(faculty);
     }
 
     @GetMapping("/{id}/students")
-    public Collection<StudentDTO> getStudentsOfFaculty(@PathVariable long id) {
-        return studentService.findByFacultyId(id);
+    public Collection<?> getStudentsOfFaculty(@PathVariable long id,
+                                              @RequestParam(required = false) Long after,
+                                              @RequestParam(required = false) List<String> fields,
+                                              @PageableDefault(size = StudentService.DEFAULT_PAGE_LIMIT, sort = "id") Pageable pageable) {
+        if (fields != null) return studentService.findFieldsByFacultyId(id, fields, after, pageable);
+        if (after != null) return studentService.findByFacultyIdAfter(id, after, pageable.getPageSize());
+        return studentService.findByFacultyId(id, pageable);
     }
 
     @GetMapping("/longest_faculty_name")
@@ -42,8 +79,19 @@ public class FacultyController {
     }
 
     @PutMapping
-    public FacultyDTO changeFaculty(@RequestBody FacultyDTO facultyDTO) {
-        return facultyService.change(facultyDTO);
+    public ResponseEntity<FacultyDTO> changeFaculty(@RequestBody FacultyDTO facultyDTO,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) facultyDTO.setVersion(ETags.parseVersion(ifMatch));
+        FacultyDTO faculty = facultyService.change(facultyDTO);
+        return ResponseEntity.ok().eTag(ETags.of(faculty.getVersion())).body(faculty);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchFaculty(@PathVariable long id,
+                                             @RequestBody FacultyPatchDTO patchDTO,
+                                             @RequestHeader(HttpHeaders.IF_MATCH) String ifMatch) {
+        long version = facultyService.patch(id, ETags.requireVersion(ifMatch), patchDTO);
+        return ResponseEntity.noContent().eTag(ETags.of(version)).build();
     }
 
     @DeleteMapping("/{id}")
@@ -2,7 +2,10 @@ package ru.hogwarts.school.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.hogwarts.school.dto.SumDTO;
+import ru.hogwarts.school.enums.SumMode;
 import ru.hogwarts.school.service.InfoService;
 
 @RestController
@@ -16,7 +19,8 @@ public class InfoController {
     }
 
     @GetMapping("/sum")
-    public long sum() {
-        return infoService.sum();
+    public SumDTO sum(@RequestParam(defaultValue = "1000000") long n,
+                      @RequestParam(defaultValue = "range") SumMode mode) {
+        return infoService.sum(n, mode);
     }
 }
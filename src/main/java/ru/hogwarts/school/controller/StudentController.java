@@ -1,11 +1,27 @@
 package ru.hogwarts.school.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.BatchImportResultDTO;
 import ru.hogwarts.school.dto.FacultyDTO;
 import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.dto.StudentPatchDTO;
+import ru.hogwarts.school.dto.StudentQuery;
+import ru.hogwarts.school.dto.StudentStatisticsDTO;
+import ru.hogwarts.school.service.BulkDataService;
+import ru.hogwarts.school.service.StudentImportService;
 import ru.hogwarts.school.service.StudentService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Collection;
 
 @RestController
@@ -13,18 +29,69 @@ import java.util.Collection;
 @RequiredArgsConstructor
 public class StudentController {
     private final StudentService studentService;
+    private final StudentImportService studentImportService;
+    private final BulkDataService bulkDataService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public StudentDTO addStudent(@RequestBody StudentDTO studentDTO) {
         return studentService.add(studentDTO);
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BatchImportResultDTO importStudents(InputStream students) throws IOException {
+        return studentImportService.importJson(students);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BatchImportResultDTO importStudentsStream(InputStream students) throws IOException {
+        return studentImportService.importNdjson(students);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public BatchImportResultDTO importStudentsCsv(InputStream csv) throws IOException {
+        return bulkDataService.importStudents(csv);
+    }
+
+    @GetMapping(value = "/export", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportStudentsCsv() {
+        StreamingResponseBody body = bulkDataService::exportStudents;
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("text/csv")).body(body);
+    }
+
     @GetMapping
     public Collection<StudentDTO> getStudents(@RequestParam(required = false) Integer from,
                                               @RequestParam(required = false) Integer to,
                                               @RequestParam(required = false) Integer age,
-                                              @RequestParam(required = false) Integer count) {
-        return studentService.getStudents(from, to, age, count);
+                                              @RequestParam(required = false) Long facultyId,
+                                              @RequestParam(required = false) String prefix,
+                                              @RequestParam(required = false) Integer count,
+                                              @RequestParam(required = false) Long after,
+                                              @RequestParam(required = false) Integer limit,
+                                              Sort sort) {
+        StudentQuery query = new StudentQuery()
+                .setAgeFrom(from)
+                .setAgeTo(to)
+                .setAge(age)
+                .setFacultyId(facultyId)
+                .setNamePrefix(prefix)
+                .setAfter(after)
+                .setLimit(limit)
+                .setSort(sort);
+        if (count != null) {
+            query.setLimit(count).setSort(sort.isSorted() ? sort : Sort.by(Sort.Direction.DESC, "id"));
+        }
+        return studentService.search(query);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamStudents() {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                studentService.streamAll(studentDTO -> write(writer, studentDTO));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("list_of_names_starting_with_letter")
@@ -32,9 +99,17 @@ public class StudentController {
         return studentService.getNamesStartingWith(latter);
     }
 
+    @GetMapping("/names")
+    public Collection<String> getNamesStartingWith(@RequestParam String prefix,
+                                                   @RequestParam(defaultValue = "10") int limit,
+                                                   @RequestParam(defaultValue = "0") int offset) {
+        return studentService.getNamesStartingWith(prefix, limit, offset);
+    }
+
     @GetMapping("/{id}")
-    public StudentDTO getStudentById(@PathVariable long id) {
-        return studentService.getById(id);
+    public ResponseEntity<StudentDTO> getStudentById(@PathVariable long id) {
+        StudentDTO student = studentService.getById(id);
+        return ResponseEntity.ok().eTag(ETags.of(student.getVersion())).body(student);
     }
 
     @GetMapping("/count")
@@ -47,6 +122,11 @@ public class StudentController {
         return studentService.getAverageAgeOfStudents();
     }
 
+    @GetMapping("/statistics")
+    public StudentStatisticsDTO getStatistics() {
+        return studentService.getStatistics();
+    }
+
     @GetMapping("/{id}/faculty")
     public FacultyDTO getFacultyOfStudent(@PathVariable long id) {
         return studentService.getFacultyOfStudent(id);
@@ -63,12 +143,31 @@ public class StudentController {
     }
 
     @PutMapping
-    public StudentDTO changeStudentData(@RequestBody StudentDTO studentDTO) {
-        return studentService.change(studentDTO);
+    public ResponseEntity<StudentDTO> changeStudentData(@RequestBody StudentDTO studentDTO,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) studentDTO.setVersion(ETags.parseVersion(ifMatch));
+        StudentDTO student = studentService.change(studentDTO);
+        return ResponseEntity.ok().eTag(ETags.of(student.getVersion())).body(student);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchStudent(@PathVariable long id,
+                                             @RequestBody StudentPatchDTO patchDTO,
+                                             @RequestHeader(HttpHeaders.IF_MATCH) String ifMatch) {
+        long version = studentService.patch(id, ETags.requireVersion(ifMatch), patchDTO);
+        return ResponseEntity.noContent().eTag(ETags.of(version)).build();
     }
 
     @DeleteMapping("/{id}")
     public StudentDTO deleteStudent(@PathVariable long id) {
         return studentService.deleteById(id);
     }
+
+    private static void write(SequenceWriter writer, StudentDTO studentDTO) {
+        try {
+            writer.write(studentDTO);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
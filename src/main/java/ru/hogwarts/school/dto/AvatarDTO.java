@@ -1,9 +1,10 @@
 package ru.hogwarts.school.dto;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
+import java.time.Instant;
+
 @Data
 @Accessors(chain = true)
 public class AvatarDTO {
@@ -12,7 +13,7 @@ public class AvatarDTO {
     private String path;
     private int size;
     private String mediaType;
-    @JsonIgnore
-    private byte[] data;
+    private String contentHash;
+    private Instant modifiedAt;
     private long studentId;
 }
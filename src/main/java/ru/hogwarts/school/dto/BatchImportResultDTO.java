@@ -0,0 +1,15 @@
+package ru.hogwarts.school.dto;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Accessors(chain = true)
+public class BatchImportResultDTO {
+    private long received;
+    private long imported;
+    private List<ImportErrorDTO> errors = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package ru.hogwarts.school.dto;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import ru.hogwarts.school.enums.BatchJobStatus;
+import ru.hogwarts.school.enums.BatchJobType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Accessors(chain = true)
+public class BatchJobDTO {
+    private UUID id;
+    private BatchJobType type;
+    private BatchJobStatus status;
+    private long total;
+    private long processed;
+    private long problems;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
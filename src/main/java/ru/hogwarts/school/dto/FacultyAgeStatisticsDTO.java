@@ -0,0 +1,18 @@
+package ru.hogwarts.school.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+public class FacultyAgeStatisticsDTO {
+    private long facultyId;
+    private long count;
+    private double averageAge;
+    private int minAge;
+    private int maxAge;
+}
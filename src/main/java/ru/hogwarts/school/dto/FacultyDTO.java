@@ -9,4 +9,5 @@ public class FacultyDTO {
     private long id;
     private String name;
     private String color;
+    private Long version;
 }
@@ -0,0 +1,11 @@
+package ru.hogwarts.school.dto;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class FacultyPatchDTO {
+    private String name;
+    private String color;
+}
@@ -0,0 +1,26 @@
+package ru.hogwarts.school.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+public class FacultyStatisticsDTO {
+    private long facultyId;
+    private String name;
+    private long studentCount;
+    private double averageAge;
+    private long avatarCount;
+    private double avatarCoverage;
+
+    public FacultyStatisticsDTO(long facultyId, String name, long studentCount, Double averageAge, long avatarCount) {
+        this.facultyId = facultyId;
+        this.name = name;
+        this.studentCount = studentCount;
+        this.averageAge = averageAge == null ? 0 : averageAge;
+        this.avatarCount = avatarCount;
+        this.avatarCoverage = studentCount == 0 ? 0 : (double) avatarCount / studentCount;
+    }
+}
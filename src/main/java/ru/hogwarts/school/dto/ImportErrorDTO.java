@@ -0,0 +1,15 @@
+package ru.hogwarts.school.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+public class ImportErrorDTO {
+    private long row;
+    private String message;
+}
@@ -1,13 +1,24 @@
 package ru.hogwarts.school.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 
 @Data
+@NoArgsConstructor
 @Accessors(chain = true)
 public class StudentDTO {
     private long id;
     private String name;
     private int age;
     private long facultyId;
+    private Long version;
+
+    public StudentDTO(long id, String name, int age, Long facultyId, long version) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.facultyId = facultyId == null ? 0 : facultyId;
+        this.version = version;
+    }
 }
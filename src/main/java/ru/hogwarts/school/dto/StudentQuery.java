@@ -0,0 +1,18 @@
+package ru.hogwarts.school.dto;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.springframework.data.domain.Sort;
+
+@Data
+@Accessors(chain = true)
+public class StudentQuery {
+    private Integer ageFrom;
+    private Integer ageTo;
+    private Integer age;
+    private Long facultyId;
+    private String namePrefix;
+    private Long after;
+    private Integer limit;
+    private Sort sort = Sort.unsorted();
+}
@@ -0,0 +1,26 @@
+package ru.hogwarts.school.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.Collection;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+public class StudentStatisticsDTO {
+    private long count;
+    private double averageAge;
+    private int minAge;
+    private int maxAge;
+    private Collection<FacultyAgeStatisticsDTO> faculties = List.of();
+
+    public StudentStatisticsDTO(Long count, Double averageAge, Integer minAge, Integer maxAge) {
+        this.count = count == null ? 0 : count;
+        this.averageAge = averageAge == null ? 0 : averageAge;
+        this.minAge = minAge == null ? 0 : minAge;
+        this.maxAge = maxAge == null ? 0 : maxAge;
+    }
+}
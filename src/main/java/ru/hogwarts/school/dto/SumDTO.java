@@ -0,0 +1,15 @@
+package ru.hogwarts.school.dto;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import ru.hogwarts.school.enums.SumMode;
+
+@Data
+@Accessors(chain = true)
+public class SumDTO {
+    private long n;
+    private SumMode mode;
+    private long sum;
+    private long durationNanos;
+    private int processors;
+}
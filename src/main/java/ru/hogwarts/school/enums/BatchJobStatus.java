@@ -0,0 +1,8 @@
+package ru.hogwarts.school.enums;
+
+public enum BatchJobStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package ru.hogwarts.school.enums;
+
+public enum BatchJobType {
+    AVATAR_CHECK,
+    THUMBNAILS
+}
@@ -0,0 +1,13 @@
+package ru.hogwarts.school.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ThumbnailSize {
+    SMALL(64),
+    MEDIUM(256);
+
+    private final int pixels;
+}
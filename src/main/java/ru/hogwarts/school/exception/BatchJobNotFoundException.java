@@ -0,0 +1,10 @@
+package ru.hogwarts.school.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class BatchJobNotFoundException extends RuntimeException {
+    public BatchJobNotFoundException() {
+    }
+}
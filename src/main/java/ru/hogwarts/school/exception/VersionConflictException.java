@@ -0,0 +1,10 @@
+package ru.hogwarts.school.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException() {
+    }
+}
@@ -1,60 +1,57 @@
 package ru.hogwarts.school.mapper;
 
-import lombok.SneakyThrows;
-import org.modelmapper.ModelMapper;
-import org.modelmapper.PropertyMap;
-import org.modelmapper.TypeToken;
 import ru.hogwarts.school.dto.AvatarDTO;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Student;
 
-import java.lang.reflect.Type;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public class AvatarMapper {
-    private static final ModelMapper mapper = new ModelMapper();
-
-    public AvatarMapper() {
-        mapper.addMappings(new PropertyMap<AvatarDTO, Avatar>() {
-            @SneakyThrows
-            @Override
-            protected void configure() {
-                skip(destination.getId());
-            }
-        });
+    private AvatarMapper() {
     }
 
     public static Avatar mapFromDTO(AvatarDTO avatarDTO) {
-        return mapper.map(avatarDTO, Avatar.class);
+        long studentId = avatarDTO.getStudentId();
+        return new Avatar()
+                .setId(avatarDTO.getId())
+                .setPath(avatarDTO.getPath())
+                .setSize(avatarDTO.getSize())
+                .setMediaType(avatarDTO.getMediaType())
+                .setContentHash(avatarDTO.getContentHash())
+                .setModifiedAt(avatarDTO.getModifiedAt())
+                .setStudent(studentId == 0 ? null : new Student().setId(studentId));
     }
 
-    @SneakyThrows
     public static AvatarDTO mapToDTO(Avatar avatar) {
-        AvatarDTO avatarDTO = mapper.map(avatar, AvatarDTO.class);
+        Student student = avatar.getStudent();
         String path = avatar.getPath();
-        avatarDTO.setName(getNameFromPath(path));
-        Path file = Path.of(path);
-        byte[] data = Files.readAllBytes(file);
-        avatarDTO.setData(data);
-        return avatarDTO;
+        return new AvatarDTO()
+                .setId(avatar.getId())
+                .setName(getNameFromPath(path))
+                .setPath(path)
+                .setSize(avatar.getSize())
+                .setMediaType(avatar.getMediaType())
+                .setContentHash(avatar.getContentHash())
+                .setModifiedAt(avatar.getModifiedAt())
+                .setStudentId(student == null ? 0 : student.getId());
     }
 
     public static Collection<AvatarDTO> mapToDTO(Collection<Avatar> avatars) {
-        Type collectionType = new TypeToken<Collection<AvatarDTO>>() {
-        }.getType();
-        Collection<AvatarDTO> mapAvatarDTOS = mapper.map(avatars, collectionType);
-        mapAvatarDTOS.forEach(a -> {
-            String name = getNameFromPath(a.getPath());
-            a.setName(name);
-        });
-        return mapAvatarDTOS;
+        List<AvatarDTO> avatarDTOs = new ArrayList<>(avatars.size());
+        for (Avatar avatar : avatars) {
+            avatarDTOs.add(mapToDTO(avatar));
+        }
+        return avatarDTOs;
     }
 
-    public static Collection<Avatar> mapFromDTO(Collection<AvatarDTO> avatarDTOS) {
-        Type collectionType = new TypeToken<Collection<Avatar>>() {
-        }.getType();
-        return mapper.map(avatarDTOS, collectionType);
+    public static Collection<Avatar> mapFromDTO(Collection<AvatarDTO> avatarDTOs) {
+        List<Avatar> avatars = new ArrayList<>(avatarDTOs.size());
+        for (AvatarDTO avatarDTO : avatarDTOs) {
+            avatars.add(mapFromDTO(avatarDTO));
+        }
+        return avatars;
     }
 
     private static String getNameFromPath(String path) {
@@ -1,44 +1,44 @@
 package ru.hogwarts.school.mapper;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.PropertyMap;
-import org.modelmapper.TypeToken;
 import ru.hogwarts.school.dto.FacultyDTO;
 import ru.hogwarts.school.model.Faculty;
 
-import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public class FacultyMapper {
-    private static final ModelMapper mapper = new ModelMapper();
-
-    public FacultyMapper() {
-        mapper.addMappings(new PropertyMap<FacultyDTO, Faculty>() {
-            @Override
-            protected void configure() {
-                skip(destination.getId());
-            }
-        });
+    private FacultyMapper() {
     }
 
     public static Faculty mapFromDTO(FacultyDTO facultyDTO) {
-        return mapper.map(facultyDTO, Faculty.class);
+        return new Faculty()
+                .setId(facultyDTO.getId())
+                .setName(facultyDTO.getName())
+                .setColor(facultyDTO.getColor());
     }
 
     public static FacultyDTO mapToDTO(Faculty faculty) {
-        return mapper.map(faculty, FacultyDTO.class);
+        return new FacultyDTO()
+                .setId(faculty.getId())
+                .setName(faculty.getName())
+                .setColor(faculty.getColor())
+                .setVersion(faculty.getVersion());
     }
 
     public static Collection<FacultyDTO> mapToDTO(Collection<Faculty> faculties) {
-        Type collectionType = new TypeToken<Collection<FacultyDTO>>() {
-        }.getType();
-
-        return mapper.map(faculties, collectionType);
+        List<FacultyDTO> facultyDTOs = new ArrayList<>(faculties.size());
+        for (Faculty faculty : faculties) {
+            facultyDTOs.add(mapToDTO(faculty));
+        }
+        return facultyDTOs;
     }
 
-    public static Collection<Faculty> mapFromDTO(Collection<FacultyDTO> facultyDTOS) {
-        Type collectionType = new TypeToken<Collection<Faculty>>() {
-        }.getType();
-        return mapper.map(facultyDTOS, collectionType);
+    public static Collection<Faculty> mapFromDTO(Collection<FacultyDTO> facultyDTOs) {
+        List<Faculty> faculties = new ArrayList<>(facultyDTOs.size());
+        for (FacultyDTO facultyDTO : facultyDTOs) {
+            faculties.add(mapFromDTO(facultyDTO));
+        }
+        return faculties;
     }
 }
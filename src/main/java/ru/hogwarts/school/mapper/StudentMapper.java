@@ -1,43 +1,49 @@
 package ru.hogwarts.school.mapper;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.PropertyMap;
-import org.modelmapper.TypeToken;
 import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 
-import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public class StudentMapper {
-    private static final ModelMapper mapper = new ModelMapper();
-
-    public StudentMapper() {
-        mapper.addMappings(new PropertyMap<StudentDTO, Student>() {
-            @Override
-            protected void configure() {
-                skip(destination.getId());
-            }
-        });
+    private StudentMapper() {
     }
 
     public static Student mapFromDTO(StudentDTO studentDTO) {
-        return mapper.map(studentDTO, Student.class);
+        long facultyId = studentDTO.getFacultyId();
+        return new Student()
+                .setId(studentDTO.getId())
+                .setName(studentDTO.getName())
+                .setAge(studentDTO.getAge())
+                .setFaculty(facultyId == 0 ? null : new Faculty().setId(facultyId));
     }
 
     public static StudentDTO mapToDTO(Student student) {
-        return mapper.map(student, StudentDTO.class);
+        Faculty faculty = student.getFaculty();
+        return new StudentDTO()
+                .setId(student.getId())
+                .setName(student.getName())
+                .setAge(student.getAge())
+                .setFacultyId(faculty == null ? 0 : faculty.getId())
+                .setVersion(student.getVersion());
     }
 
     public static Collection<StudentDTO> mapToDTO(Collection<Student> students) {
-        Type collectionType = new TypeToken<Collection<StudentDTO>>() {
-        }.getType();
-        return mapper.map(students, collectionType);
+        List<StudentDTO> studentDTOs = new ArrayList<>(students.size());
+        for (Student student : students) {
+            studentDTOs.add(mapToDTO(student));
+        }
+        return studentDTOs;
     }
 
     public static Collection<Student> mapFromDTO(Collection<StudentDTO> studentDTOs) {
-        Type collectionType = new TypeToken<Collection<Student>>() {
-        }.getType();
-        return mapper.map(studentDTOs, collectionType);
+        List<Student> students = new ArrayList<>(studentDTOs.size());
+        for (StudentDTO studentDTO : studentDTOs) {
+            students.add(mapFromDTO(studentDTO));
+        }
+        return students;
     }
 }
@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.ToString;
 import lombok.experimental.Accessors;
 
+import java.time.Instant;
+
 @Entity
 @Data
 @Accessors(chain = true)
@@ -12,11 +14,12 @@ public class Avatar {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private long id;
+    @Column(length = 255)
     private String path;
     private int size;
     private String mediaType;
-    @Transient
-    private byte[] data;
+    private String contentHash;
+    private Instant modifiedAt;
     @OneToOne
     @JoinColumn(name = "student_id", nullable = false)
     @ToString.Exclude
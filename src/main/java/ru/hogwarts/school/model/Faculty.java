@@ -16,6 +16,8 @@ public class Faculty {
     private long id;
     private String name;
     private String color;
+    @Version
+    private long version;
 
     @OneToMany(mappedBy = "faculty")
     @ToString.Exclude
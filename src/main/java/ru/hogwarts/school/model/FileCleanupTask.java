@@ -0,0 +1,21 @@
+package ru.hogwarts.school.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@Accessors(chain = true)
+public class FileCleanupTask {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "file_cleanup_task_seq")
+    @SequenceGenerator(name = "file_cleanup_task_seq", sequenceName = "file_cleanup_task_seq", allocationSize = 50)
+    private long id;
+    private String path;
+    private int attempts;
+    private Instant nextAttemptAt;
+
+}
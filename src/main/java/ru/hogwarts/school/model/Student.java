@@ -10,12 +10,15 @@ import lombok.experimental.Accessors;
 @Accessors(chain = true)
 public class Student {
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", allocationSize = 50)
     private long id;
     private String name;
     private int age;
+    @Version
+    private long version;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "faculty_id")
     @ToString.Exclude
     private Faculty faculty;
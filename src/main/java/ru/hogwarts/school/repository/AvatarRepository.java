@@ -1,10 +1,31 @@
 package ru.hogwarts.school.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.hogwarts.school.dto.AvatarFileDTO;
 import ru.hogwarts.school.model.Avatar;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface AvatarRepository extends JpaRepository<Avatar, Long> {
     Optional<Avatar> findByStudentId(long studentId);
+
+    @Query("SELECT a FROM Avatar a JOIN FETCH a.student s WHERE s.id BETWEEN :from AND :to ORDER BY s.id")
+    List<Avatar> findByStudentIdBetween(long from, long to);
+
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarFileDTO(a.student.id, a.path) FROM Avatar a WHERE a.id = :id")
+    Optional<AvatarFileDTO> findFileById(long id);
+
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarFileDTO(a.student.id, a.path) FROM Avatar a WHERE a.student.id = :studentId")
+    Optional<AvatarFileDTO> findFileByStudentId(long studentId);
+
+    @Modifying
+    @Query("DELETE FROM Avatar a WHERE a.id = :id")
+    int deleteAvatarById(long id);
+
+    @Modifying
+    @Query("DELETE FROM Avatar a WHERE a.student.id = :studentId")
+    int deleteAvatarByStudentId(long studentId);
 }
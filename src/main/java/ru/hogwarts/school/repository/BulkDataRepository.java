@@ -0,0 +1,231 @@
+package ru.hogwarts.school.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.dto.BatchImportResultDTO;
+import ru.hogwarts.school.dto.ImportErrorDTO;
+import ru.hogwarts.school.exception.InvalidParamsException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+@Repository
+@RequiredArgsConstructor
+public class BulkDataRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkDataRepository.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String STUDENT_STAGING = "CREATE TEMP TABLE student_staging " +
+            "(row_number bigserial, name varchar(255), age int, faculty_id bigint) ON COMMIT DROP";
+    private static final String STUDENT_COPY_IN = "COPY student_staging (name, age, faculty_id) FROM STDIN WITH (FORMAT csv, HEADER true)";
+    private static final String STUDENT_REJECTED = "SELECT s.row_number, 'Faculty with id = ' || s.faculty_id || ' not found' " +
+            "FROM student_staging s WHERE s.faculty_id IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM faculty f WHERE f.id = s.faculty_id) ORDER BY s.row_number";
+    private static final String STUDENT_MERGE = "INSERT INTO student (id, name, age, faculty_id, version) " +
+            "SELECT nextval('student_seq'), s.name, s.age, s.faculty_id, 0 FROM student_staging s " +
+            "WHERE s.faculty_id IS NULL OR EXISTS (SELECT 1 FROM faculty f WHERE f.id = s.faculty_id)";
+    private static final String STUDENT_INSERT = "INSERT INTO student (id, name, age, faculty_id, version) " +
+            "SELECT NEXT VALUE FOR student_seq, ?, ?, ?, 0 " +
+            "WHERE CAST(? AS BIGINT) IS NULL OR EXISTS (SELECT 1 FROM faculty f WHERE f.id = ?)";
+    private static final String STUDENT_SELECT = "SELECT id, name, age, faculty_id FROM student ORDER BY id";
+    private static final String STUDENT_HEADER = "id,name,age,faculty_id";
+
+    private static final String FACULTY_STAGING = "CREATE TEMP TABLE faculty_staging " +
+            "(row_number bigserial, name varchar(255), color varchar(255)) ON COMMIT DROP";
+    private static final String FACULTY_COPY_IN = "COPY faculty_staging (name, color) FROM STDIN WITH (FORMAT csv, HEADER true)";
+    private static final String FACULTY_REJECTED = "SELECT s.row_number, 'Faculty with name ''' || s.name || ''' already exists' " +
+            "FROM faculty_staging s WHERE EXISTS (SELECT 1 FROM faculty f WHERE LOWER(f.name) = LOWER(s.name)) " +
+            "OR EXISTS (SELECT 1 FROM faculty_staging d WHERE LOWER(d.name) = LOWER(s.name) AND d.row_number < s.row_number) " +
+            "ORDER BY s.row_number";
+    private static final String FACULTY_MERGE = "INSERT INTO faculty (id, name, color, version) " +
+            "SELECT nextval('faculty_seq'), s.name, s.color, 0 FROM " +
+            "(SELECT DISTINCT ON (LOWER(name)) name, color FROM faculty_staging ORDER BY LOWER(name), row_number) s " +
+            "WHERE NOT EXISTS (SELECT 1 FROM faculty f WHERE LOWER(f.name) = LOWER(s.name))";
+    private static final String FACULTY_INSERT = "INSERT INTO faculty (id, name, color, version) " +
+            "SELECT NEXT VALUE FOR faculty_seq, ?, ?, 0 " +
+            "WHERE NOT EXISTS (SELECT 1 FROM faculty f WHERE LOWER(f.name) = LOWER(?))";
+    private static final String FACULTY_SELECT = "SELECT id, name, color FROM faculty ORDER BY id";
+    private static final String FACULTY_HEADER = "id,name,color";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public BatchImportResultDTO importStudents(InputStream csv) throws IOException {
+        if (isPostgres()) return copyIn(STUDENT_STAGING, STUDENT_COPY_IN, STUDENT_REJECTED, STUDENT_MERGE, csv);
+        return batchInsert(csv, STUDENT_INSERT, row -> {
+            Long facultyId = row.size() < 3 || row.get(2).isEmpty() ? null : Long.valueOf(row.get(2));
+            return new Object[]{row.get(0), Integer.valueOf(row.get(1)), facultyId, facultyId, facultyId};
+        }, args -> "Faculty with id = " + args[2] + " not found");
+    }
+
+    public BatchImportResultDTO importFaculties(InputStream csv) throws IOException {
+        if (isPostgres()) return copyIn(FACULTY_STAGING, FACULTY_COPY_IN, FACULTY_REJECTED, FACULTY_MERGE, csv);
+        return batchInsert(csv, FACULTY_INSERT, row -> new Object[]{row.get(0), row.get(1), row.get(0)},
+                args -> "Faculty with name '" + args[0] + "' already exists");
+    }
+
+    public void exportStudents(OutputStream out) throws IOException {
+        export(out, STUDENT_SELECT, STUDENT_HEADER);
+    }
+
+    public void exportFaculties(OutputStream out) throws IOException {
+        export(out, FACULTY_SELECT, FACULTY_HEADER);
+    }
+
+    // COPY is all-or-nothing: a row that cannot be parsed rejects the whole file with 400 and nothing is imported.
+    // Rows that parse but are filtered out by the merge are reported one by one, as on the batch insert path.
+    private BatchImportResultDTO copyIn(String staging, String copyIn, String rejected, String merge, InputStream csv) {
+        return jdbcTemplate.execute((ConnectionCallback<BatchImportResultDTO>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(staging);
+                long received = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copyIn, csv);
+                List<ImportErrorDTO> errors = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery(rejected)) {
+                    while (rs.next()) errors.add(new ImportErrorDTO(rs.getLong(1), rs.getString(2)));
+                }
+                long imported = statement.executeUpdate(merge);
+                LOGGER.debug("COPY loaded {} rows, {} merged, {} rejected", received, imported, errors.size());
+                return new BatchImportResultDTO()
+                        .setReceived(received)
+                        .setImported(imported)
+                        .setErrors(errors);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (SQLException e) {
+                LOGGER.error("InvalidParamsException. COPY rejected the CSV: {}", e.getMessage());
+                throw new InvalidParamsException();
+            }
+        });
+    }
+
+    private BatchImportResultDTO batchInsert(InputStream csv, String insert, CsvRowMapper mapper,
+                                             Function<Object[], String> rejection) throws IOException {
+        BatchImportResultDTO result = new BatchImportResultDTO();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        List<Long> rows = new ArrayList<>(BATCH_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        long row = 0;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            row++;
+            try {
+                batch.add(mapper.map(parseLine(line)));
+                rows.add(row);
+            } catch (RuntimeException e) {
+                result.getErrors().add(new ImportErrorDTO(row, "Malformed CSV row: " + e.getMessage()));
+            }
+            if (batch.size() == BATCH_SIZE) {
+                insert(insert, batch, rows, rejection, result);
+                batch.clear();
+                rows.clear();
+            }
+        }
+        if (!batch.isEmpty()) insert(insert, batch, rows, rejection, result);
+        result.getErrors().sort(Comparator.comparingLong(ImportErrorDTO::getRow));
+        result.setReceived(row);
+        LOGGER.debug("Batch insert loaded {} rows, {} inserted", result.getReceived(), result.getImported());
+        return result;
+    }
+
+    private void insert(String insert, List<Object[]> batch, List<Long> rows,
+                        Function<Object[], String> rejection, BatchImportResultDTO result) {
+        int[] counts = jdbcTemplate.batchUpdate(insert, batch);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                result.getErrors().add(new ImportErrorDTO(rows.get(i), rejection.apply(batch.get(i))));
+            } else {
+                result.setImported(result.getImported() + counts[i]);
+            }
+        }
+    }
+
+    private void export(OutputStream out, String select, String header) throws IOException {
+        if (isPostgres()) {
+            jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try {
+                    return connection.unwrap(PGConnection.class).getCopyAPI()
+                            .copyOut("COPY (" + select + ") TO STDOUT WITH (FORMAT csv, HEADER true)", out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return;
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(header);
+        writer.write('\n');
+        jdbcTemplate.query(select, rs -> {
+            try {
+                int columns = rs.getMetaData().getColumnCount();
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) writer.write(',');
+                    String value = rs.getString(i);
+                    if (value != null) writer.write(escape(value));
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class));
+        }
+        return postgres;
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private interface CsvRowMapper {
+        Object[] map(List<String> row);
+    }
+}
@@ -1,15 +1,31 @@
 package ru.hogwarts.school.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.hogwarts.school.dto.FacultyStatisticsDTO;
 import ru.hogwarts.school.model.Faculty;
 
-import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface FacultyRepository extends JpaRepository<Faculty, Long> {
     Optional<Faculty> findByNameIgnoreCase(String name);
 
-    Collection<Faculty> findByNameContainsIgnoreCase(String name);
+    @Modifying
+    @Query("UPDATE Faculty f SET f.name = COALESCE(:name, f.name), f.color = COALESCE(:color, f.color), " +
+            "f.version = f.version + 1 WHERE f.id = :id AND f.version = :version")
+    int patch(long id, long version, String name, String color);
 
-    Collection<Faculty> findByColorContainsIgnoreCase(String color);
+    @Query("SELECT f.id FROM Faculty f")
+    Set<Long> findAllIds();
+
+    @Query("SELECT new ru.hogwarts.school.dto.FacultyStatisticsDTO(f.id, f.name, COUNT(s), AVG(s.age), COUNT(a)) " +
+            "FROM Faculty f LEFT JOIN f.students s LEFT JOIN s.avatar a GROUP BY f.id, f.name ORDER BY f.id")
+    List<FacultyStatisticsDTO> getStatistics();
+
+    @Query("SELECT f FROM Faculty f WHERE LOWER(f.name) LIKE :pattern ESCAPE '\\' OR LOWER(f.color) LIKE :pattern ESCAPE '\\'")
+    List<Faculty> findByNameOrColorLike(String pattern, Pageable pageable);
 }
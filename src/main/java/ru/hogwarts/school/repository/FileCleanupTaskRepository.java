@@ -0,0 +1,14 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.hogwarts.school.model.FileCleanupTask;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface FileCleanupTaskRepository extends JpaRepository<FileCleanupTask, Long> {
+    @Query(value = "SELECT * FROM file_cleanup_task WHERE next_attempt_at <= :now " +
+            "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<FileCleanupTask> claimDue(Instant now);
+}
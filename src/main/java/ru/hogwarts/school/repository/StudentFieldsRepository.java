@@ -0,0 +1,14 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface StudentFieldsRepository {
+    Set<String> STUDENT_FIELDS = Set.of("id", "name", "age", "facultyId");
+
+    List<Map<String, Object>> findFieldsByFacultyId(long facultyId, Collection<String> fields, Long after, Pageable pageable);
+}
@@ -0,0 +1,62 @@
+package ru.hogwarts.school.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.hogwarts.school.model.Student;
+
+import java.util.*;
+
+@RequiredArgsConstructor
+public class StudentFieldsRepositoryImpl implements StudentFieldsRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFieldsByFacultyId(long facultyId, Collection<String> fields, Long after, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Student> student = query.from(Student.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(path(student, field).alias(field));
+        }
+        Predicate byFaculty = cb.equal(student.get("faculty").get("id"), facultyId);
+        query.multiselect(selections)
+                .where(after == null ? byFaculty : cb.and(byFaculty, cb.greaterThan(student.get("id"), after)));
+
+        List<Order> orders = new ArrayList<>();
+        Sort sort = after == null ? pageable.getSort() : Sort.by("id");
+        for (Sort.Order order : sort) {
+            Path<?> path = path(student, order.getProperty());
+            orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        query.orderBy(orders);
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(after == null ? (int) pageable.getOffset() : 0);
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Path<?> path(Root<Student> student, String field) {
+        return switch (field) {
+            case "facultyId" -> student.get("faculty").get("id");
+            default -> student.get(field);
+        };
+    }
+}
@@ -0,0 +1,10 @@
+package ru.hogwarts.school.repository;
+
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.dto.StudentQuery;
+
+import java.util.List;
+
+public interface StudentQueryRepository {
+    List<StudentDTO> search(StudentQuery query);
+}
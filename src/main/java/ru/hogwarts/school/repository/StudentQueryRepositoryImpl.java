@@ -0,0 +1,54 @@
+package ru.hogwarts.school.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.dto.StudentQuery;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class StudentQueryRepositoryImpl implements StudentQueryRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<StudentDTO> search(StudentQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StudentDTO> criteria = cb.createQuery(StudentDTO.class);
+        Root<Student> student = criteria.from(Student.class);
+        Join<Student, Faculty> faculty = student.join("faculty", JoinType.LEFT);
+        criteria.select(cb.construct(StudentDTO.class,
+                student.get("id"), student.get("name"), student.get("age"), faculty.get("id"), student.get("version")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.getAgeFrom() != null) predicates.add(cb.ge(student.get("age"), query.getAgeFrom()));
+        if (query.getAgeTo() != null) predicates.add(cb.le(student.get("age"), query.getAgeTo()));
+        if (query.getAge() != null) predicates.add(cb.equal(student.get("age"), query.getAge()));
+        if (query.getFacultyId() != null) predicates.add(cb.equal(faculty.get("id"), query.getFacultyId()));
+        if (query.getNamePrefix() != null) {
+            String pattern = EscapeCharacter.DEFAULT.escape(query.getNamePrefix().toUpperCase()) + "%";
+            predicates.add(cb.like(cb.upper(student.get("name")), pattern, EscapeCharacter.DEFAULT.getEscapeCharacter()));
+        }
+        if (query.getAfter() != null) predicates.add(cb.gt(student.get("id"), query.getAfter()));
+        criteria.where(predicates.toArray(Predicate[]::new));
+
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : query.getSort()) {
+            Path<?> path = student.get(order.getProperty());
+            orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        if (query.getSort().getOrderFor("id") == null) orders.add(cb.asc(student.get("id")));
+        criteria.orderBy(orders);
+
+        TypedQuery<StudentDTO> typedQuery = entityManager.createQuery(criteria);
+        if (query.getLimit() != null) typedQuery.setMaxResults(query.getLimit());
+        return typedQuery.getResultList();
+    }
+}
@@ -1,27 +1,89 @@
 package ru.hogwarts.school.repository;
 
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.hogwarts.school.dto.FacultyAgeStatisticsDTO;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.dto.StudentStatisticsDTO;
 import ru.hogwarts.school.model.Student;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface StudentRepository extends JpaRepository<Student, Long> {
-    Collection<Student> findAllByFacultyId(long facultyId);
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
-    Collection<Student> findByAgeBetween(int from, int to);
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentFieldsRepository, StudentQueryRepository {
+    String SELECT_STUDENT_DTO = "SELECT new ru.hogwarts.school.dto.StudentDTO(s.id, s.name, s.age, f.id, s.version) " +
+            "FROM Student s LEFT JOIN s.faculty f ";
 
-    Collection<Student> findByAge(int age);
+    @Query(SELECT_STUDENT_DTO + "ORDER BY s.id")
+    List<StudentDTO> findAllStudents();
+
+    @Query(SELECT_STUDENT_DTO + "WHERE s.id = :id")
+    Optional<StudentDTO> findStudentById(long id);
+
+    @Query(SELECT_STUDENT_DTO + "WHERE f.id = :facultyId")
+    List<StudentDTO> findAllByFacultyId(long facultyId, Pageable pageable);
+
+    @Query(SELECT_STUDENT_DTO + "WHERE f.id = :facultyId AND s.id > :after ORDER BY s.id")
+    List<StudentDTO> findAllByFacultyIdAfter(long facultyId, long after, Limit limit);
+
+    boolean existsByFacultyId(long facultyId);
+
+    @Modifying
+    @Query("DELETE FROM Student s WHERE s.id = :id")
+    int deleteStudentById(long id);
+
+    @Modifying
+    @Query("UPDATE Student s SET s.name = COALESCE(:name, s.name), s.age = COALESCE(:age, s.age), " +
+            "s.version = s.version + 1 WHERE s.id = :id AND s.version = :version")
+    int patch(long id, long version, String name, Integer age);
+
+    @EntityGraph(attributePaths = {"faculty", "avatar"})
+    Optional<Student> findWithFacultyById(long id);
+
+    @EntityGraph(attributePaths = "avatar")
+    Optional<Student> findWithAvatarById(long id);
+
+    @Query(value = "SELECT UPPER(name) FROM student WHERE UPPER(name) LIKE :pattern ESCAPE '\\' " +
+            "ORDER BY UPPER(name) LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<String> findNamesByPattern(String pattern, int limit, int offset);
+
+    @Query(value = "SELECT UPPER(name) FROM student WHERE UPPER(name) LIKE :pattern ESCAPE '\\' " +
+            "ORDER BY UPPER(name)", nativeQuery = true)
+    List<String> findAllNamesByPattern(String pattern);
+
+    @Query("SELECT COUNT(s) FROM Student s WHERE s.id BETWEEN :from AND :to")
+    long countByIdBetween(long from, long to);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_STUDENT_DTO + "ORDER BY s.id")
+    Stream<StudentDTO> streamAllOrderById();
 
     @Query(value = "SELECT COUNT(*) FROM student", nativeQuery = true)
     int getCountOfStudents();
 
-    @Query(value = "SELECT AVG(age) FROM student", nativeQuery = true)
-    float getAverageAgeOfStudents();
+    @Query("SELECT MIN(s.id) FROM Student s")
+    Long getMinId();
+
+    @Query("SELECT MAX(s.id) FROM Student s")
+    Long getMaxId();
+
+    @Query("SELECT AVG(s.age) FROM Student s")
+    Double getAverageAgeOfStudents();
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentStatisticsDTO(COUNT(s), AVG(s.age), MIN(s.age), MAX(s.age)) " +
+            "FROM Student s")
+    StudentStatisticsDTO getStatistics();
 
-    default Collection<Student> findLastByIdDesc(int count) {
-        return findAll(PageRequest.of(0, count, Sort.by(Sort.Direction.DESC, "id"))).getContent();
-    }
+    @Query("SELECT new ru.hogwarts.school.dto.FacultyAgeStatisticsDTO(s.faculty.id, COUNT(s), AVG(s.age), MIN(s.age), MAX(s.age)) " +
+            "FROM Student s WHERE s.faculty IS NOT NULL GROUP BY s.faculty.id ORDER BY s.faculty.id")
+    List<FacultyAgeStatisticsDTO> getStatisticsByFaculty();
 }
@@ -1,37 +1,64 @@
 package ru.hogwarts.school.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import ru.hogwarts.school.dto.AvatarDTO;
+import ru.hogwarts.school.dto.AvatarFileDTO;
 import ru.hogwarts.school.exception.AvatarNotFoundException;
-import ru.hogwarts.school.exception.StudentNotFoundException;
+import ru.hogwarts.school.exception.FileNotExistException;
 import ru.hogwarts.school.model.Avatar;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.enums.ThumbnailSize;
 import ru.hogwarts.school.repository.AvatarRepository;
 
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
-import java.util.Objects;
+import java.util.HexFormat;
 import java.util.Optional;
+import java.util.UUID;
 
-import static java.nio.file.Files.notExists;
-import static java.nio.file.Files.write;
 import static ru.hogwarts.school.mapper.AvatarMapper.mapToDTO;
 
 @Service
+@Timed(value = "school.service", histogram = true)
 @Transactional
 @RequiredArgsConstructor
 public class AvatarService {
     private static final Logger LOGGER = LoggerFactory.getLogger(AvatarService.class);
+    private static final String DEFAULT_EXTENSION = "bin";
+    private static final int MAX_EXTENSION_LENGTH = 10;
 
     @Value("${avatars.folder.path}")
     private String avatarDir;
@@ -39,33 +66,43 @@ public class AvatarService {
     private final AvatarRepository avatarRepository;
     private final StudentService studentService;
     private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final AvatarThumbnailService thumbnailService;
+    private final FileCleanupService fileCleanupService;
+    private final MeterRegistry meterRegistry;
 
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    @CacheEvict(cacheNames = "facultyStatistics", allEntries = true)
     public void addAvatar(long studentId, MultipartFile multipartFile) throws IOException {
-        LOGGER.info("Invoked method 'addAvatar'");
-        if (studentService.getById(studentId) == null) {
-            LOGGER.error("StudentNotFoundException. Students with 'id = {}' not found in DB 'Hogwarts'", studentId);
-            throw new StudentNotFoundException();
-        }
-        Student student = entityManager.getReference(Student.class, studentId);
-        String file = avatarDir + getFileName(studentId, Objects.requireNonNull(multipartFile.getOriginalFilename()));
+        LOGGER.debug("Invoked method 'addAvatar'");
+        studentService.getById(studentId);
+        String file = avatarDir + getFileName(studentId, multipartFile);
         Path path = Path.of(file);
         LOGGER.debug("Path of avatar: {}", path);
-        Avatar avatar = avatarRepository.findByStudentId(studentId)
-                .orElse(new Avatar())
-                .setPath(file)
-                .setSize((int) multipartFile.getSize())
-                .setMediaType(multipartFile.getContentType())
-                .setData(multipartFile.getBytes())
-                .setStudent(student);
-        avatarRepository.save(avatar);
-        Path avatarDirPath = Path.of(avatarDir);
-        LOGGER.debug("Path of avatar directory: {}", avatarDirPath);
-        if (Files.notExists(avatarDirPath)) Files.createDirectory(avatarDirPath);
-        write(path, multipartFile.getBytes());
+        StoredFile storedFile = store(multipartFile, path);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Optional<Avatar> existing = avatarRepository.findByStudentId(studentId);
+                existing.ifPresent(old -> fileCleanupService.schedule(new AvatarFileDTO(studentId, old.getPath())));
+                Avatar avatar = existing
+                        .orElse(new Avatar())
+                        .setPath(file)
+                        .setSize((int) storedFile.size())
+                        .setMediaType(multipartFile.getContentType())
+                        .setContentHash(storedFile.hash())
+                        .setModifiedAt(Instant.now().truncatedTo(ChronoUnit.SECONDS))
+                        .setStudent(entityManager.getReference(Student.class, studentId));
+                avatarRepository.save(avatar);
+            });
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        thumbnailService.generateThumbnails(path);
     }
 
     public Collection<AvatarDTO> getAvatars(int numOfPage, int size) {
-        LOGGER.info("Invoked method 'getAvatars', to get a page-by-page list");
+        LOGGER.debug("Invoked method 'getAvatars', to get a page-by-page list");
         PageRequest page = PageRequest.of((numOfPage - 1), size);
         Collection<Avatar> avatars = avatarRepository.findAll(page).getContent();
         if (avatars.isEmpty()) {
@@ -77,7 +114,7 @@ public class AvatarService {
     }
 
     public AvatarDTO getAvatar(long studentId) {
-        LOGGER.info("Invoked method 'getAvatar', to get avatar of student with 'id = {}'", studentId);
+        LOGGER.debug("Invoked method 'getAvatar', to get avatar of student with 'id = {}'", studentId);
         Optional<Avatar> foundAvatar = avatarRepository.findByStudentId(studentId);
         if (foundAvatar.isPresent()) {
             Avatar avatar = foundAvatar.get();
@@ -89,24 +126,107 @@ public class AvatarService {
         }
     }
 
-    public void deleteAvatar(long id) throws IOException {
+    public Optional<AvatarDTO> getThumbnail(AvatarDTO avatar, ThumbnailSize size) {
+        long studentId = avatar.getStudentId();
+        LOGGER.debug("Invoked method 'getThumbnail', to get {} thumbnail of student with 'id = {}'", size, studentId);
+        Path thumbnail = thumbnailService.getThumbnailPath(Path.of(avatar.getPath()), size);
+        if (!Files.isReadable(thumbnail)) {
+            LOGGER.debug("Thumbnail {} is not generated yet", thumbnail);
+            return Optional.empty();
+        }
+        return Optional.of(new AvatarDTO()
+                .setId(avatar.getId())
+                .setName(thumbnail.getFileName().toString())
+                .setPath(thumbnail.toString())
+                .setSize((int) thumbnail.toFile().length())
+                .setMediaType(MediaType.IMAGE_PNG_VALUE)
+                .setContentHash(avatar.getContentHash() == null ? null : avatar.getContentHash() + "-" + size.name().toLowerCase())
+                .setModifiedAt(avatar.getModifiedAt())
+                .setStudentId(studentId));
+    }
+
+    public Resource getAvatarResource(AvatarDTO avatarDTO) {
+        Resource resource = new FileSystemResource(avatarDTO.getPath());
+        if (!resource.isReadable()) {
+            LOGGER.error("FileNotExistException. The file of avatar with 'id = {}' not found: {}", avatarDTO.getId(), avatarDTO.getPath());
+            throw new FileNotExistException();
+        }
+        return resource;
+    }
+
+    // Counted from the file length or the requested ranges, so the resource itself is written to the
+    // response unwrapped and the servlet container can stream it straight from disk.
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void recordBytesServed(Resource resource, String range) {
+        try {
+            long bytes = range == null ? resource.contentLength()
+                    : HttpRange.toResourceRegions(HttpRange.parseRanges(range), resource).stream()
+                    .mapToLong(ResourceRegion::getCount)
+                    .sum();
+            meterRegistry.counter("avatars.bytes.served").increment(bytes);
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.debug("Bytes served from {} not recorded: {}", resource, e.getMessage());
+        }
+    }
+
+    @CacheEvict(cacheNames = "facultyStatistics", allEntries = true)
+    public void deleteAvatar(long id) {
         LOGGER.warn("Invoked method 'deleteAvatar' delete data about the avatar with 'id = {}'", id);
-        Optional<Avatar> avatar = avatarRepository.findById(id);
+        Optional<AvatarFileDTO> avatar = avatarRepository.findFileById(id);
         if (avatar.isPresent()) {
-            Avatar deletedAvatar = avatar.get();
-            Path avatarPath = Path.of(deletedAvatar.getPath());
-            Files.deleteIfExists(avatarPath);
-            if (notExists(avatarPath)) avatarRepository.delete(deletedAvatar);
+            fileCleanupService.schedule(avatar.get());
+            avatarRepository.deleteAvatarById(id);
             LOGGER.debug("Avatar with 'id = {}' successfully deleted", id);
         } else {
             LOGGER.error("AvatarNotFoundException. There is no such avatar with 'id = {}'", id);
             throw new AvatarNotFoundException();
         }
+    }
 
+    @SneakyThrows(NoSuchAlgorithmException.class)
+    private StoredFile store(MultipartFile multipartFile, Path path) throws IOException {
+        Path avatarDirPath = Path.of(avatarDir);
+        LOGGER.debug("Path of avatar directory: {}", avatarDirPath);
+        Files.createDirectories(avatarDirPath);
+        Path tempFile = Files.createTempFile(avatarDirPath, "upload-", ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(multipartFile.getInputStream(), digest));
+                 FileChannel out = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                size = out.transferFrom(in, 0, Long.MAX_VALUE);
+                out.force(true);
+            }
+            Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.debug("Avatar stored to {}, size = {}", path, size);
+            return new StoredFile(size, HexFormat.of().formatHex(digest.digest()));
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // Every upload gets a fresh name, so cleanup queued for a replaced or deleted avatar
+    // can never remove a file that a newer upload has put in its place.
+    private String getFileName(long studentId, MultipartFile multipartFile) {
+        return studentId + "-" + UUID.randomUUID() + "." + getExtension(multipartFile);
+    }
+
+    // Taken from the original file name, or from the content type when the name has none,
+    // and reduced to a short alphanumeric suffix so it cannot escape the avatar directory.
+    private String getExtension(MultipartFile multipartFile) {
+        String extension = StringUtils.getFilenameExtension(multipartFile.getOriginalFilename());
+        if (!StringUtils.hasText(extension) && multipartFile.getContentType() != null) {
+            try {
+                extension = MimeTypeUtils.parseMimeType(multipartFile.getContentType()).getSubtype().split("\\+")[0];
+            } catch (InvalidMimeTypeException e) {
+                LOGGER.debug("Content type {} of avatar not parsed", multipartFile.getContentType());
+            }
+        }
+        extension = extension == null ? "" : extension.replaceAll("[^A-Za-z0-9]", "").toLowerCase();
+        if (extension.isEmpty()) return DEFAULT_EXTENSION;
+        return extension.length() > MAX_EXTENSION_LENGTH ? extension.substring(0, MAX_EXTENSION_LENGTH) : extension;
     }
 
-    private String getFileName(long studentId, String fileName) {
-        String extension = fileName.substring(fileName.lastIndexOf("."));
-        return studentId + extension;
+    private record StoredFile(long size, String hash) {
     }
 }
@@ -0,0 +1,146 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.enums.ThumbnailSize;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class AvatarThumbnailService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AvatarThumbnailService.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Timer generationTimer;
+
+    @Autowired
+    public AvatarThumbnailService(@Value("${avatars.thumbnails.threads:2}") int threads,
+                                  @Value("${avatars.thumbnails.queue-capacity:100}") int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        this(newExecutor(threads, queueCapacity), meterRegistry);
+    }
+
+    AvatarThumbnailService(ThreadPoolExecutor executor, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        Gauge.builder("avatars.thumbnails.queue", executor, e -> e.getQueue().size())
+                .description("Avatars waiting for thumbnail generation")
+                .register(meterRegistry);
+        this.generationTimer = Timer.builder("avatars.thumbnails.generation")
+                .description("Time to generate all thumbnails of an avatar")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<Void> generateThumbnails(Path original) {
+        LOGGER.debug("Thumbnails of avatar {} queued, queue size = {}", original, executor.getQueue().size());
+        try {
+            return CompletableFuture.runAsync(() -> generationTimer.record(() -> generate(original)), executor);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Thumbnails of avatar {} not generated: {}", original, e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public Path getThumbnailPath(Path original, ThumbnailSize size) {
+        String fileName = original.getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        String baseName = extension < 0 ? fileName : fileName.substring(0, extension);
+        return original.resolveSibling(baseName + "_" + size.name().toLowerCase() + ".png");
+    }
+
+    public List<Path> getThumbnailPaths(Path original) {
+        return Arrays.stream(ThumbnailSize.values())
+                .map(size -> getThumbnailPath(original, size))
+                .toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    static ThreadPoolExecutor newExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> new Thread(task, "avatar-thumbnail-" + threadNumber.incrementAndGet()),
+                AvatarThumbnailService::runOnCaller);
+    }
+
+    // Like CallerRunsPolicy while the pool is running, but rejects instead of silently dropping the
+    // task after shutdown, so the caller's future fails rather than never completing.
+    private static void runOnCaller(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) throw new RejectedExecutionException("Thumbnail executor is shut down");
+        task.run();
+    }
+
+    private void generate(Path original) {
+        if (Files.notExists(original)) {
+            LOGGER.debug("Avatar {} was removed before its thumbnails were generated", original);
+            return;
+        }
+        try {
+            BufferedImage image = ImageIO.read(original.toFile());
+            if (image == null) {
+                LOGGER.warn("Avatar {} is not a readable image, thumbnails are not generated", original);
+                return;
+            }
+            for (ThumbnailSize size : ThumbnailSize.values()) {
+                write(scale(image, size.getPixels()), getThumbnailPath(original, size), original);
+            }
+            LOGGER.debug("Thumbnails of avatar {} generated", original);
+        } catch (IOException e) {
+            LOGGER.error("Thumbnails of avatar {} not generated", original, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BufferedImage scale(BufferedImage image, int maxSide) {
+        double ratio = Math.min(1.0, (double) maxSide / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    // Cleanup deletes the avatar before its thumbnails, so a thumbnail moved into place after the
+    // avatar is gone may have missed its cleanup task and is removed here instead.
+    private void write(BufferedImage thumbnail, Path path, Path original) throws IOException {
+        Path tempFile = Files.createTempFile(path.getParent(), "thumbnail-", ".tmp");
+        try {
+            ImageIO.write(thumbnail, "png", tempFile.toFile());
+            Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (Files.notExists(original)) {
+                Files.deleteIfExists(path);
+                LOGGER.debug("Avatar {} was removed while thumbnail {} was generated", original, path);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
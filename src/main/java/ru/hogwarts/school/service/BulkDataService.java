@@ -0,0 +1,44 @@
+package ru.hogwarts.school.service;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.BatchImportResultDTO;
+import ru.hogwarts.school.repository.BulkDataRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class BulkDataService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkDataService.class);
+    private final BulkDataRepository bulkDataRepository;
+
+    @CacheEvict(cacheNames = {"studentStatistics", "facultyStatistics"}, allEntries = true)
+    public BatchImportResultDTO importStudents(InputStream csv) throws IOException {
+        LOGGER.debug("Invoked method 'importStudents' from CSV");
+        return bulkDataRepository.importStudents(csv);
+    }
+
+    @CacheEvict(cacheNames = {"faculties", "facultyStatistics"}, allEntries = true)
+    public BatchImportResultDTO importFaculties(InputStream csv) throws IOException {
+        LOGGER.debug("Invoked method 'importFaculties' from CSV");
+        return bulkDataRepository.importFaculties(csv);
+    }
+
+    public void exportStudents(OutputStream out) throws IOException {
+        LOGGER.debug("Invoked method 'exportStudents' to CSV");
+        bulkDataRepository.exportStudents(out);
+    }
+
+    public void exportFaculties(OutputStream out) throws IOException {
+        LOGGER.debug("Invoked method 'exportFaculties' to CSV");
+        bulkDataRepository.exportFaculties(out);
+    }
+}
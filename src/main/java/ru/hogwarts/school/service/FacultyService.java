@@ -1,11 +1,17 @@
 package ru.hogwarts.school.service;
 
 import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.FacultyPatchDTO;
+import ru.hogwarts.school.dto.FacultyStatisticsDTO;
 
 import java.util.Collection;
 
 public interface FacultyService extends SchoolService<FacultyDTO> {
-    Collection<FacultyDTO> getFaculties(String searchTerm);
+    Collection<FacultyDTO> getFaculties(String searchTerm, int numOfPage, int size);
 
     String longestFacultyName();
+
+    Collection<FacultyStatisticsDTO> getStatistics();
+
+    long patch(long id, long version, FacultyPatchDTO patchDTO);
 }
@@ -1,47 +1,63 @@
 package ru.hogwarts.school.service;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
 import org.springframework.stereotype.Service;
 import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.FacultyPatchDTO;
+import ru.hogwarts.school.dto.FacultyStatisticsDTO;
 import ru.hogwarts.school.exception.FacultyAlreadyAddedException;
 import ru.hogwarts.school.exception.FacultyNotFoundException;
 import ru.hogwarts.school.exception.InvalidDeletionRequestException;
+import ru.hogwarts.school.exception.InvalidParamsException;
+import ru.hogwarts.school.exception.VersionConflictException;
 import ru.hogwarts.school.mapper.FacultyMapper;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
 
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static ru.hogwarts.school.mapper.FacultyMapper.mapFromDTO;
 import static ru.hogwarts.school.mapper.FacultyMapper.mapToDTO;
 
 @Service
+@Timed(value = "school.service", histogram = true)
 @Transactional
 @RequiredArgsConstructor
 public class FacultyServiceImpl implements FacultyService {
+    private static final int MAX_PAGE_SIZE = 100;
     private static final Logger LOGGER = LoggerFactory.getLogger(FacultyServiceImpl.class);
     private final FacultyRepository facultyRepository;
+    private final StudentRepository studentRepository;
 
 
     @Override
-    public Collection<FacultyDTO> getFaculties(String searchTerm) {
+    @Cacheable(cacheNames = "faculties", key = "'all'", condition = "#searchTerm == null")
+    public Collection<FacultyDTO> getFaculties(String searchTerm, int numOfPage, int size) {
         if (searchTerm == null) {
             return getAll();
         }
-        LOGGER.info("Invoked method 'getFaculties' to get list of all faculties with name or color {}", searchTerm);
-        Collection<Faculty> filteredByNameFaculty = facultyRepository.findByNameContainsIgnoreCase(searchTerm);
-        Collection<Faculty> filteredByColorFaculty = facultyRepository.findByColorContainsIgnoreCase(searchTerm);
-        Collection<Faculty> filteredFaculty = Stream.concat(
-                        filteredByNameFaculty.stream(),
-                        filteredByColorFaculty.stream())
-                .collect(Collectors.toSet());
+        LOGGER.debug("Invoked method 'getFaculties' to get list of all faculties with name or color {}", searchTerm);
+        if (numOfPage < 1 || size < 1 || size > MAX_PAGE_SIZE) {
+            LOGGER.error("InvalidParamsException. Invalid page parameters 'numOfPage = {}', 'size = {}'", numOfPage, size);
+            throw new InvalidParamsException();
+        }
+        String pattern = "%" + EscapeCharacter.DEFAULT.escape(searchTerm.toLowerCase()) + "%";
+        PageRequest page = PageRequest.of(numOfPage - 1, size, Sort.by("id"));
+        Collection<Faculty> filteredFaculty = facultyRepository.findByNameOrColorLike(pattern, page);
         if (filteredFaculty.isEmpty()) {
             LOGGER.error("FacultyNotFoundException. The faculty {} not found", searchTerm);
             throw new FacultyNotFoundException();
@@ -51,8 +67,9 @@ public class FacultyServiceImpl implements FacultyService {
     }
 
     @Override
+    @Cacheable(cacheNames = "faculties", key = "'longest_name'")
     public String longestFacultyName() {
-        LOGGER.info("Invoked method 'longestFacultyName', for find faculty with longest name to DB 'Hogwarts'");
+        LOGGER.debug("Invoked method 'longestFacultyName', for find faculty with longest name to DB 'Hogwarts'");
         return getAll()
                 .stream()
                 .map(FacultyDTO::getName)
@@ -61,8 +78,21 @@ public class FacultyServiceImpl implements FacultyService {
     }
 
     @Override
+    @Cacheable(cacheNames = "facultyStatistics", key = "'all'")
+    public Collection<FacultyStatisticsDTO> getStatistics() {
+        LOGGER.debug("Invoked method 'getStatistics' to get statistics of all faculties");
+        Collection<FacultyStatisticsDTO> statistics = facultyRepository.getStatistics();
+        if (statistics.isEmpty()) {
+            LOGGER.error("FacultyNotFoundException. The faculties not exist");
+            throw new FacultyNotFoundException();
+        }
+        return statistics;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = {"faculties", "facultyStatistics"}, allEntries = true)
     public FacultyDTO add(FacultyDTO facultyDTO) {
-        LOGGER.info("Invoked method 'add', for create and added faculty to DB 'Hogwarts'");
+        LOGGER.debug("Invoked method 'add', for create and added faculty to DB 'Hogwarts'");
         Optional<Faculty> faculty = facultyRepository.findByNameIgnoreCase(facultyDTO.getName());
         if (faculty.isPresent()) {
             LOGGER.error("FacultyAlreadyAddedException. Faculty {} already exist on DB 'Hogwarts'", facultyDTO.getName());
@@ -74,8 +104,9 @@ public class FacultyServiceImpl implements FacultyService {
     }
 
     @Override
+    @Cacheable(cacheNames = "faculties", key = "'all'")
     public Collection<FacultyDTO> getAll() {
-        LOGGER.info("Invoked method 'getAll' to get list of all faculties");
+        LOGGER.debug("Invoked method 'getAll' to get list of all faculties");
         Collection<Faculty> faculties = facultyRepository.findAll();
         if (faculties.isEmpty()) {
             LOGGER.error("FacultyNotFoundException. The faculties not exist");
@@ -86,8 +117,9 @@ public class FacultyServiceImpl implements FacultyService {
     }
 
     @Override
+    @Cacheable(cacheNames = "faculty", key = "#id")
     public FacultyDTO getById(long id) {
-        LOGGER.info("Invoked method 'getById'");
+        LOGGER.debug("Invoked method 'getById'");
         Optional<Faculty> foundFaculty = facultyRepository.findById(id);
         if (foundFaculty.isEmpty()) {
             LOGGER.error("FacultyNotFoundException. The faculty with 'id = {}' not found", id);
@@ -98,18 +130,25 @@ public class FacultyServiceImpl implements FacultyService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "faculty", key = "#facultyDTO.id"),
+            @CacheEvict(cacheNames = {"faculties", "facultyStatistics"}, allEntries = true)
+    })
     public FacultyDTO change(FacultyDTO facultyDTO) {
         LOGGER.warn("Invoked method 'change' changes data about the faculty, data may be lost");
         Optional<Faculty> changedFaculty = facultyRepository.findById(facultyDTO.getId());
         if (changedFaculty.isPresent()) {
             Faculty faculty = changedFaculty.get();
             LOGGER.debug("The faculty before change: {}", faculty);
-            changedFaculty.map(f -> {
-                f.setName(facultyDTO.getName());
-                f.setColor(facultyDTO.getColor());
-                facultyRepository.save(f);
-                return f;
-            });
+            checkVersion(faculty.getVersion(), facultyDTO.getVersion());
+            faculty.setName(facultyDTO.getName());
+            faculty.setColor(facultyDTO.getColor());
+            try {
+                facultyRepository.saveAndFlush(faculty);
+            } catch (OptimisticLockingFailureException e) {
+                LOGGER.error("VersionConflictException. Faculty with 'id = {}' was changed concurrently", faculty.getId());
+                throw new VersionConflictException();
+            }
             LOGGER.debug("The faculty after change: {}", faculty);
             return mapToDTO(faculty);
         } else {
@@ -119,6 +158,34 @@ public class FacultyServiceImpl implements FacultyService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "faculty", key = "#id"),
+            @CacheEvict(cacheNames = {"faculties", "facultyStatistics"}, allEntries = true)
+    })
+    public long patch(long id, long version, FacultyPatchDTO patchDTO) {
+        LOGGER.warn("Invoked method 'patch' changes data about the faculty with 'id = {}' of version {}", id, version);
+        if (patchDTO.getName() == null && patchDTO.getColor() == null
+                || patchDTO.getName() != null && patchDTO.getName().isBlank()
+                || patchDTO.getColor() != null && patchDTO.getColor().isBlank()) {
+            LOGGER.error("InvalidParamsException. Invalid patch of faculty: {}", patchDTO);
+            throw new InvalidParamsException();
+        }
+        if (facultyRepository.patch(id, version, patchDTO.getName(), patchDTO.getColor()) == 0) {
+            if (!facultyRepository.existsById(id)) {
+                LOGGER.error("FacultyNotFoundException. There is no faculty with 'id = {}'", id);
+                throw new FacultyNotFoundException();
+            }
+            LOGGER.error("VersionConflictException. Faculty with 'id = {}' is not of version {}", id, version);
+            throw new VersionConflictException();
+        }
+        return version + 1;
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "faculty", key = "#id"),
+            @CacheEvict(cacheNames = {"faculties", "facultyStatistics"}, allEntries = true)
+    })
     public FacultyDTO deleteById(long id) {
         LOGGER.warn("Invoked method 'deleteById' delete data about the faculty with 'id = {}', data may be lost", id);
         Optional<Faculty> faculty = facultyRepository.findById(id);
@@ -129,7 +196,7 @@ public class FacultyServiceImpl implements FacultyService {
             LOGGER.error("FacultyNotFoundException. There is no faculty with 'id = {}'", id);
             throw new FacultyNotFoundException();
         }
-        if (deletedFaculty.getStudents().isEmpty()) {
+        if (!studentRepository.existsByFacultyId(id)) {
             facultyRepository.delete(deletedFaculty);
             LOGGER.debug("Faculty with 'id = {}' successfully deleted", id);
             return mapToDTO(deletedFaculty);
@@ -138,4 +205,11 @@ public class FacultyServiceImpl implements FacultyService {
             throw new InvalidDeletionRequestException();
         }
     }
+
+    private void checkVersion(long actual, Long expected) {
+        if (expected != null && expected != actual) {
+            LOGGER.error("VersionConflictException. Expected version {}, but actual is {}", expected, actual);
+            throw new VersionConflictException();
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.AvatarFileDTO;
+import ru.hogwarts.school.model.FileCleanupTask;
+import ru.hogwarts.school.repository.FileCleanupTaskRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Service
+@Timed(value = "school.service", histogram = true)
+@Transactional
+public class FileCleanupService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileCleanupService.class);
+
+    private final FileCleanupTaskRepository repository;
+    private final AvatarThumbnailService thumbnailService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+
+    public FileCleanupService(FileCleanupTaskRepository repository,
+                              AvatarThumbnailService thumbnailService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${files.cleanup.batch-size:100}") int batchSize,
+                              @Value("${files.cleanup.max-attempts:10}") int maxAttempts,
+                              @Value("${files.cleanup.backoff:1s}") Duration backoff,
+                              @Value("${files.cleanup.max-backoff:1h}") Duration maxBackoff) {
+        this.repository = repository;
+        this.thumbnailService = thumbnailService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void schedule(AvatarFileDTO avatar) {
+        Instant now = Instant.now();
+        Path original = Path.of(avatar.getPath());
+        List<FileCleanupTask> tasks = Stream.concat(
+                        Stream.of(original),
+                        thumbnailService.getThumbnailPaths(original).stream())
+                .map(path -> new FileCleanupTask().setPath(path.toString()).setNextAttemptAt(now))
+                .toList();
+        repository.saveAll(tasks);
+        LOGGER.debug("Cleanup of {} files of student with 'id = {}' scheduled", tasks.size(), avatar.getStudentId());
+    }
+
+    // Each task is claimed with SKIP LOCKED in its own transaction, so several nodes can drain the
+    // outbox side by side and a failure on one task never rolls back the others.
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    @Scheduled(fixedDelayString = "${files.cleanup.delay:PT1S}")
+    public void processDue() {
+        Instant now = Instant.now();
+        int processed = 0;
+        while (processed < batchSize && Boolean.TRUE.equals(transactionTemplate.execute(status -> processNext(now)))) {
+            processed++;
+        }
+        if (processed > 0) LOGGER.debug("Invoked method 'processDue', {} files processed", processed);
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private boolean processNext(Instant now) {
+        Optional<FileCleanupTask> task = repository.claimDue(now);
+        task.ifPresent(claimed -> process(claimed, now));
+        return task.isPresent();
+    }
+
+    private void process(FileCleanupTask task, Instant now) {
+        try {
+            Files.deleteIfExists(Path.of(task.getPath()));
+            repository.delete(task);
+            LOGGER.debug("File {} deleted", task.getPath());
+        } catch (IOException e) {
+            int attempts = task.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                LOGGER.error("File {} not deleted after {} attempts, cleanup is abandoned", task.getPath(), attempts, e);
+                repository.delete(task);
+                return;
+            }
+            task.setAttempts(attempts).setNextAttemptAt(now.plus(backoff(attempts)));
+            LOGGER.warn("File {} not deleted, attempt {} of {}, next attempt at {}: {}",
+                    task.getPath(), attempts, maxAttempts, task.getNextAttemptAt(), e.toString());
+        }
+    }
+}
@@ -1,32 +1,56 @@
 package ru.hogwarts.school.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.SumDTO;
+import ru.hogwarts.school.exception.InvalidParamsException;
+import ru.hogwarts.school.enums.SumMode;
 
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.LongStream;
 
 @Service
+@Timed(value = "school.service", histogram = true)
 public class InfoService {
+    public static final long MAX_N = 100_000_000;
     private static final Logger LOGGER = LoggerFactory.getLogger(InfoService.class);
 
     @Value("${server.port}")
     private int port;
 
     public int getPort() {
-        LOGGER.info("Invoke method 'getPort'");
+        LOGGER.debug("Invoke method 'getPort'");
         LOGGER.debug("The result of the method 'getPort' execution 'port = {}'", port);
         return port;
     }
 
-    public long sum() {
-        LOGGER.info("Invoke method 'sum'");
-        long sum = LongStream.iterate(1, a -> a + 1)
-                .limit(1_000_000)
-                .sum();
-        LOGGER.debug("The result of the method 'sum' execution: 'sum = {}'", sum);
-        return sum;
+    public SumDTO sum(long n, SumMode mode) {
+        LOGGER.debug("Invoke method 'sum', 'n = {}', 'mode = {}'", n, mode);
+        if (n < 1 || n > MAX_N) {
+            LOGGER.error("InvalidParamsException. Invalid sum parameter 'n = {}', must be between 1 and {}", n, MAX_N);
+            throw new InvalidParamsException();
+        }
+        long start = System.nanoTime();
+        long sum = compute(n, mode);
+        long duration = System.nanoTime() - start;
+        LOGGER.debug("The result of the method 'sum' execution: 'sum = {}', {} ns", sum, duration);
+        return new SumDTO()
+                .setN(n)
+                .setMode(mode)
+                .setSum(sum)
+                .setDurationNanos(duration)
+                .setProcessors(mode == SumMode.PARALLEL ? ForkJoinPool.getCommonPoolParallelism() : 1);
     }
 
+    static long compute(long n, SumMode mode) {
+        return switch (mode) {
+            case ITERATE -> LongStream.iterate(1, a -> a + 1).limit(n).sum();
+            case RANGE -> LongStream.rangeClosed(1, n).sum();
+            case PARALLEL -> LongStream.rangeClosed(1, n).parallel().sum();
+            case FORMULA -> n * (n + 1) / 2;
+        };
+    }
 }
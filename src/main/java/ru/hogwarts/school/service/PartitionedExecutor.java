@@ -0,0 +1,79 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Component
+public class PartitionedExecutor implements DisposableBean {
+    private final ThreadPoolTaskExecutor executor;
+
+    public PartitionedExecutor(@Value("${school.executor.pool-size:4}") int poolSize,
+                               @Value("${school.executor.queue-capacity:100}") int queueCapacity,
+                               @Value("${school.executor.await-termination:30s}") Duration awaitTermination,
+                               MeterRegistry meterRegistry) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("school-task-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(awaitTermination.toMillis());
+        executor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "school-task");
+    }
+
+    public <T, R> List<R> map(List<T> items, int partitions, Function<List<T>, R> task) {
+        List<List<T>> parts = partition(items, partitions);
+        List<CompletableFuture<R>> futures = new ArrayList<>(parts.size());
+        for (List<T> part : parts) {
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(part), executor));
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+        return results;
+    }
+
+    public <T> void forEach(List<T> items, int partitions, Consumer<T> action) {
+        map(items, partitions, part -> {
+            part.forEach(action);
+            return null;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    static <T> List<List<T>> partition(List<T> items, int partitions) {
+        if (partitions < 1) throw new IllegalArgumentException("partitions must be positive");
+        int count = Math.min(partitions, items.size());
+        List<List<T>> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            parts.add(items.subList(i * items.size() / count, (i + 1) * items.size() / count));
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,240 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.BatchJobDTO;
+import ru.hogwarts.school.exception.BatchJobNotFoundException;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.enums.BatchJobStatus;
+import ru.hogwarts.school.enums.BatchJobType;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Timed(value = "school.service", histogram = true)
+public class StudentBatchService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentBatchService.class);
+
+    private final StudentRepository studentRepository;
+    private final AvatarRepository avatarRepository;
+    private final AvatarThumbnailService thumbnailService;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int history;
+    private final Map<UUID, BatchJob> jobs = new ConcurrentHashMap<>();
+
+    public StudentBatchService(StudentRepository studentRepository,
+                               AvatarRepository avatarRepository,
+                               AvatarThumbnailService thumbnailService,
+                               @Value("${students.batch.parallelism:4}") int parallelism,
+                               @Value("${students.batch.chunk-size:500}") int chunkSize,
+                               @Value("${students.batch.history:50}") int history) {
+        this.studentRepository = studentRepository;
+        this.avatarRepository = avatarRepository;
+        this.thumbnailService = thumbnailService;
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+        this.history = history;
+    }
+
+    public BatchJobDTO start(BatchJobType type) {
+        LOGGER.debug("Invoke method 'start', batch job of type {}", type);
+        pruneHistory();
+        BatchJob job = new BatchJob(type, studentRepository.getCountOfStudents());
+        jobs.put(job.id, job);
+        Long minId = studentRepository.getMinId();
+        Long maxId = studentRepository.getMaxId();
+        if (minId == null || maxId == null) {
+            job.finish(BatchJobStatus.COMPLETED);
+        } else {
+            pool.execute(() -> run(job, new RangeTask(job, minId, maxId)));
+        }
+        LOGGER.info("Batch job {} of type {} started for {} students", job.id, type, job.total);
+        return job.toDTO();
+    }
+
+    public BatchJobDTO getJob(UUID id) {
+        return findJob(id).toDTO();
+    }
+
+    public Collection<BatchJobDTO> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(job -> job.startedAt))
+                .map(BatchJob::toDTO)
+                .toList();
+    }
+
+    public BatchJobDTO cancel(UUID id) {
+        LOGGER.debug("Invoke method 'cancel', batch job {}", id);
+        BatchJob job = findJob(id);
+        job.cancelled = true;
+        return job.toDTO();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        pool.shutdown();
+    }
+
+    private BatchJob findJob(UUID id) {
+        BatchJob job = jobs.get(id);
+        if (job == null) {
+            LOGGER.error("BatchJobNotFoundException. Batch job with 'id = {}' not found", id);
+            throw new BatchJobNotFoundException();
+        }
+        return job;
+    }
+
+    private void run(BatchJob job, RangeTask task) {
+        try {
+            task.invoke();
+            job.finish(job.cancelled ? BatchJobStatus.CANCELLED : BatchJobStatus.COMPLETED);
+            LOGGER.info("Batch job {} {}: processed = {}, problems = {}", job.id, job.status, job.processed, job.problems);
+        } catch (RuntimeException e) {
+            job.finish(BatchJobStatus.FAILED);
+            LOGGER.error("Batch job {} failed", job.id, e);
+        }
+    }
+
+    private void pruneHistory() {
+        int excess = jobs.size() - history + 1;
+        if (excess <= 0) return;
+        jobs.values().stream()
+                .filter(job -> job.status != BatchJobStatus.RUNNING)
+                .sorted(Comparator.comparing(job -> job.finishedAt))
+                .limit(excess)
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    private void processChunk(BatchJob job, long from, long to) {
+        long students = studentRepository.countByIdBetween(from, to);
+        if (students == 0) return;
+        List<Avatar> avatars = avatarRepository.findByStudentIdBetween(from, to);
+        long problems = switch (job.type) {
+            case AVATAR_CHECK -> avatars.stream().filter(avatar -> !isValid(avatar)).count();
+            case THUMBNAILS -> avatars.stream().filter(avatar -> !regenerateThumbnails(avatar)).count();
+        };
+        job.processed.addAndGet(students);
+        job.problems.addAndGet(problems);
+    }
+
+    private boolean isValid(Avatar avatar) {
+        Path path = Path.of(avatar.getPath());
+        try {
+            if (Files.isReadable(path) && Files.size(path) == avatar.getSize()) return true;
+        } catch (IOException e) {
+            LOGGER.debug("Size of avatar {} not read", path, e);
+        }
+        LOGGER.warn("Avatar of student with 'id = {}' is missing or damaged: {}", avatar.getStudent().getId(), path);
+        return false;
+    }
+
+    private boolean regenerateThumbnails(Avatar avatar) {
+        if (!isValid(avatar)) return false;
+        CompletableFuture<Void> thumbnails = thumbnailService.generateThumbnails(Path.of(avatar.getPath()));
+        try {
+            ForkJoinPool.managedBlock(new FutureBlocker(thumbnails));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !thumbnails.isCompletedExceptionally();
+    }
+
+    // Lets the pool add a compensating worker while a chunk waits for the thumbnail executor.
+    private record FutureBlocker(CompletableFuture<?> future) implements ForkJoinPool.ManagedBlocker {
+        @Override
+        public boolean block() {
+            try {
+                future.join();
+            } catch (CompletionException | CancellationException e) {
+                LOGGER.debug("Thumbnails not generated", e);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return future.isDone();
+        }
+    }
+
+    private class RangeTask extends RecursiveAction {
+        private final BatchJob job;
+        private final long from;
+        private final long to;
+
+        RangeTask(BatchJob job, long from, long to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (job.cancelled) return;
+            if (to - from < chunkSize) {
+                processChunk(job, from, to);
+                return;
+            }
+            long middle = from + (to - from) / 2;
+            invokeAll(new RangeTask(job, from, middle), new RangeTask(job, middle + 1, to));
+        }
+    }
+
+    private static class BatchJob {
+        private final UUID id = UUID.randomUUID();
+        private final BatchJobType type;
+        private final long total;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong problems = new AtomicLong();
+        private volatile boolean cancelled;
+        private volatile BatchJobStatus status = BatchJobStatus.RUNNING;
+        private volatile Instant finishedAt;
+
+        BatchJob(BatchJobType type, long total) {
+            this.type = type;
+            this.total = total;
+        }
+
+        void finish(BatchJobStatus status) {
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        BatchJobDTO toDTO() {
+            return new BatchJobDTO()
+                    .setId(id)
+                    .setType(type)
+                    .setStatus(status)
+                    .setTotal(total)
+                    .setProcessed(processed.get())
+                    .setProblems(problems.get())
+                    .setStartedAt(startedAt)
+                    .setFinishedAt(finishedAt);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.BatchImportResultDTO;
+import ru.hogwarts.school.dto.ImportErrorDTO;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class StudentImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentImportService.class);
+
+    private final FacultyRepository facultyRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader studentReader;
+    private final int chunkSize;
+
+    public StudentImportService(FacultyRepository facultyRepository,
+                                EntityManager entityManager,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${students.import.chunk-size:500}") int chunkSize) {
+        this.facultyRepository = facultyRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.studentReader = objectMapper.readerFor(StudentDTO.class);
+        this.chunkSize = chunkSize;
+    }
+
+    @CacheEvict(cacheNames = {"studentStatistics", "facultyStatistics"}, allEntries = true)
+    public BatchImportResultDTO importJson(InputStream in) throws IOException {
+        LOGGER.debug("Invoked method 'importJson'");
+        Batch batch = new Batch();
+        try (MappingIterator<StudentDTO> students = studentReader.readValues(in)) {
+            while (students.hasNextValue()) {
+                batch.add(students.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            batch.reject("Malformed JSON, import stopped: " + e.getOriginalMessage());
+        }
+        return batch.finish();
+    }
+
+    @CacheEvict(cacheNames = {"studentStatistics", "facultyStatistics"}, allEntries = true)
+    public BatchImportResultDTO importNdjson(InputStream in) throws IOException {
+        LOGGER.debug("Invoked method 'importNdjson'");
+        Batch batch = new Batch();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    batch.add(studentReader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    batch.reject("Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+        }
+        return batch.finish();
+    }
+
+    private void persist(List<Row> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Row row : rows) {
+                StudentDTO student = row.student();
+                entityManager.persist(new Student()
+                        .setName(student.getName())
+                        .setAge(student.getAge())
+                        .setFaculty(entityManager.getReference(Faculty.class, student.getFacultyId())));
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private record Row(long number, StudentDTO student) {
+    }
+
+    private class Batch {
+        private final Set<Long> facultyIds = facultyRepository.findAllIds();
+        private final List<Row> chunk = new ArrayList<>(chunkSize);
+        private final BatchImportResultDTO result = new BatchImportResultDTO();
+
+        void add(StudentDTO student) {
+            long number = result.getReceived() + 1;
+            result.setReceived(number);
+            String error = validate(student);
+            if (error != null) {
+                result.getErrors().add(new ImportErrorDTO(number, error));
+                return;
+            }
+            chunk.add(new Row(number, student));
+            if (chunk.size() == chunkSize) flush();
+        }
+
+        void reject(String message) {
+            long number = result.getReceived() + 1;
+            result.setReceived(number);
+            result.getErrors().add(new ImportErrorDTO(number, message));
+        }
+
+        BatchImportResultDTO finish() {
+            flush();
+            result.getErrors().sort((a, b) -> Long.compare(a.getRow(), b.getRow()));
+            LOGGER.debug("Imported {} of {} students, errors: {}", result.getImported(), result.getReceived(), result.getErrors().size());
+            return result;
+        }
+
+        private String validate(StudentDTO student) {
+            if (student == null) return "Student is empty";
+            if (student.getName() == null || student.getName().isBlank()) return "Name is required";
+            if (student.getAge() < 0) return "Age must not be negative";
+            if (!facultyIds.contains(student.getFacultyId())) {
+                return "Faculty with 'id = " + student.getFacultyId() + "' not found";
+            }
+            return null;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) return;
+            try {
+                persist(chunk);
+                result.setImported(result.getImported() + chunk.size());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Chunk of {} students failed, retrying row by row: {}", chunk.size(), e.getMessage());
+                for (Row row : chunk) {
+                    try {
+                        persist(List.of(row));
+                        result.setImported(result.getImported() + 1);
+                    } catch (RuntimeException rowException) {
+                        LOGGER.error("Student in row {} not imported", row.number(), rowException);
+                        result.getErrors().add(new ImportErrorDTO(row.number(), rootMessage(rowException)));
+                    }
+                }
+            }
+            chunk.clear();
+        }
+
+        private String rootMessage(Throwable e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) cause = cause.getCause();
+            return cause.getMessage();
+        }
+    }
+}
@@ -1,28 +1,42 @@
 package ru.hogwarts.school.service;
 
+import org.springframework.data.domain.Pageable;
 import ru.hogwarts.school.dto.FacultyDTO;
 import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.dto.StudentPatchDTO;
+import ru.hogwarts.school.dto.StudentQuery;
+import ru.hogwarts.school.dto.StudentStatisticsDTO;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface StudentService extends SchoolService<StudentDTO> {
-    Collection<StudentDTO> findByFacultyId(long facultyId);
+    int DEFAULT_PAGE_LIMIT = 100;
 
-    Collection<StudentDTO> findByAgeBetween(int from, int to);
+    Collection<StudentDTO> findByFacultyId(long facultyId, Pageable pageable);
 
-    Collection<StudentDTO> findByAge(int age);
+    Collection<StudentDTO> findByFacultyIdAfter(long facultyId, long after, int limit);
+
+    Collection<Map<String, Object>> findFieldsByFacultyId(long facultyId, Collection<String> fields, Long after, Pageable pageable);
 
     Collection<String> getNamesStartingWith(char letter);
 
+    Collection<String> getNamesStartingWith(String prefix, int limit, int offset);
+
     FacultyDTO getFacultyOfStudent(long id);
 
     int getCountOfStudents();
 
     double getAverageAgeOfStudents();
 
-    Collection<StudentDTO> findLastStudents(int count);
+    StudentStatisticsDTO getStatistics();
+
+    Collection<StudentDTO> search(StudentQuery query);
+
+    long patch(long id, long version, StudentPatchDTO patchDTO);
 
-    Collection<StudentDTO> getStudents(Integer... args);
+    void streamAll(Consumer<StudentDTO> consumer);
 
     void printParallel();
 
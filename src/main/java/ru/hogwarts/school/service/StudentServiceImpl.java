@@ -1,104 +1,130 @@
 package ru.hogwarts.school.service;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
 import org.springframework.stereotype.Service;
 import ru.hogwarts.school.dto.FacultyDTO;
 import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.dto.StudentPatchDTO;
+import ru.hogwarts.school.dto.StudentQuery;
+import ru.hogwarts.school.dto.StudentStatisticsDTO;
 import ru.hogwarts.school.exception.InvalidParamsException;
 import ru.hogwarts.school.exception.StudentNotFoundException;
+import ru.hogwarts.school.exception.VersionConflictException;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentFieldsRepository;
 import ru.hogwarts.school.repository.StudentRepository;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CountDownLatch;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-import static java.lang.Thread.currentThread;
 import static ru.hogwarts.school.mapper.FacultyMapper.mapFromDTO;
 import static ru.hogwarts.school.mapper.FacultyMapper.mapToDTO;
 import static ru.hogwarts.school.mapper.StudentMapper.mapToDTO;
 
 @Service
+@Timed(value = "school.service", histogram = true)
 @Transactional
 @RequiredArgsConstructor
 public class StudentServiceImpl implements StudentService {
-    private Integer count = 0;
+    private static final int MAX_PAGE_LIMIT = 1000;
+    private static final int PRINT_PARTITIONS = 3;
+    private static final Set<String> SORT_FIELDS = Set.of("id", "name", "age");
     private static final Logger LOGGER = LoggerFactory.getLogger(StudentServiceImpl.class);
     private final StudentRepository repository;
+    private final AvatarRepository avatarRepository;
+    private final FileCleanupService fileCleanupService;
     private final FacultyService facultyService;
+    private final PartitionedExecutor partitionedExecutor;
 
     @Override
-    public Collection<StudentDTO> findByFacultyId(long facultyId) {
-        LOGGER.info("Invoked method 'findByFacultyId'");
-        Collection<Student> students = repository.findAllByFacultyId(facultyId);
-        if (students.isEmpty()) {
-            LOGGER.error("StudentNotFoundException. Students of faculty with 'id = {}' not found in DB 'Hogwarts'", facultyId);
-            throw new StudentNotFoundException();
-        }
-        LOGGER.debug("The list of faculty students with 'id = {}' size = {}", facultyId, students.size());
-        return mapToDTO(students);
+    public Collection<StudentDTO> findByFacultyId(long facultyId, Pageable pageable) {
+        LOGGER.debug("Invoked method 'findByFacultyId'");
+        validatePage(pageable);
+        Collection<StudentDTO> students = repository.findAllByFacultyId(facultyId, pageable);
+        checkFacultyPage(facultyId, students, pageable.getPageNumber() == 0);
+        return students;
     }
 
     @Override
-    public Collection<StudentDTO> findByAgeBetween(int from, int to) {
-        LOGGER.info("Invoked method 'findByAgeBetween'");
-        Collection<Student> students = repository.findByAgeBetween(from, to);
-        if (students.isEmpty()) {
-            LOGGER.error("StudentNotFoundException. Students with age between '{}' - '{}', not found in DB 'Hogwarts'", from, to);
-            throw new StudentNotFoundException();
+    public Collection<StudentDTO> findByFacultyIdAfter(long facultyId, long after, int limit) {
+        LOGGER.debug("Invoked method 'findByFacultyIdAfter'");
+        if (after < 0 || limit < 1 || limit > MAX_PAGE_LIMIT) {
+            LOGGER.error("InvalidParamsException. Invalid page parameters 'after = {}', 'limit = {}'", after, limit);
+            throw new InvalidParamsException();
         }
-        LOGGER.debug("The list of students with age between '{}' - '{}' size = {}", from, to, students.size());
-        return mapToDTO(students);
+        Collection<StudentDTO> students = repository.findAllByFacultyIdAfter(facultyId, after, Limit.of(limit));
+        checkFacultyPage(facultyId, students, after == 0);
+        return students;
     }
 
     @Override
-    public Collection<StudentDTO> findByAge(int age) {
-        LOGGER.info("Invoked method 'findByAge'");
-        Collection<Student> students = repository.findByAge(age);
-        if (students.isEmpty()) {
-            LOGGER.error("StudentNotFoundException. Students with age '{}', not found in DB 'Hogwarts'", age);
-            throw new StudentNotFoundException();
+    public Collection<Map<String, Object>> findFieldsByFacultyId(long facultyId, Collection<String> fields, Long after, Pageable pageable) {
+        LOGGER.debug("Invoked method 'findFieldsByFacultyId', fields = {}", fields);
+        Set<String> selected = new LinkedHashSet<>(fields);
+        if (selected.isEmpty() || !StudentFieldsRepository.STUDENT_FIELDS.containsAll(selected) || (after != null && after < 0)) {
+            LOGGER.error("InvalidParamsException. Invalid projection parameters 'fields = {}', 'after = {}'", fields, after);
+            throw new InvalidParamsException();
         }
-        LOGGER.debug("The list of students with age '{}' size = {}", age, students.size());
-        return mapToDTO(students);
+        validatePage(pageable);
+        Collection<Map<String, Object>> students = repository.findFieldsByFacultyId(facultyId, selected, after, pageable);
+        checkFacultyPage(facultyId, students, after == null ? pageable.getPageNumber() == 0 : after == 0);
+        return students;
     }
 
     @Override
     public Collection<String> getNamesStartingWith(char latter) {
-        LOGGER.info("Invoked method 'getStudentsNames'");
+        LOGGER.debug("Invoked method 'getStudentsNames'");
         if (!Character.isAlphabetic(latter)) {
             LOGGER.error("InvalidParamsException. Character must be a latter");
             throw new InvalidParamsException();
         }
-        String prefix = String.valueOf(latter).toUpperCase();
-        Collection<String> studentsNames = getAll()
-                .stream()
-                .map(s -> s.getName().toUpperCase())
-                .filter(s -> s.startsWith(prefix))
-                .sorted()
-                .collect(Collectors.toCollection(ArrayList::new));
+        Collection<String> studentsNames = repository.findAllNamesByPattern(String.valueOf(latter).toUpperCase() + "%");
         if (studentsNames.isEmpty()) {
-            LOGGER.error("StudentNotFoundException. No students with a name starting with the letter '{}' were found in DB 'Hogwarts'", prefix);
+            LOGGER.error("StudentNotFoundException. No students with a name starting with the letter '{}' were found in DB 'Hogwarts'", latter);
             throw new StudentNotFoundException();
         }
-        LOGGER.debug("The list of students names starting with latter '{}' size = {}", prefix, studentsNames.size());
+        return studentsNames;
+    }
+
+    @Override
+    public Collection<String> getNamesStartingWith(String prefix, int limit, int offset) {
+        LOGGER.debug("Invoked method 'getNamesStartingWith'");
+        if (prefix == null || prefix.isBlank() || limit < 1 || limit > MAX_PAGE_LIMIT || offset < 0) {
+            LOGGER.error("InvalidParamsException. Invalid search parameters 'prefix = {}', 'limit = {}', 'offset = {}'", prefix, limit, offset);
+            throw new InvalidParamsException();
+        }
+        String pattern = EscapeCharacter.DEFAULT.escape(prefix.toUpperCase()) + "%";
+        Collection<String> studentsNames = repository.findNamesByPattern(pattern, limit, offset);
+        LOGGER.debug("The list of students names starting with '{}' size = {}", prefix, studentsNames.size());
         return studentsNames;
     }
 
     @Override
     public FacultyDTO getFacultyOfStudent(long id) {
-        LOGGER.info("Invoked method 'getFacultyOfStudent'");
-        Optional<Student> foundStudent = repository.findById(id);
+        LOGGER.debug("Invoked method 'getFacultyOfStudent'");
+        Optional<Student> foundStudent = repository.findWithFacultyById(id);
         Faculty faculty;
         if (foundStudent.isPresent()) {
             faculty = foundStudent.get().getFaculty();
@@ -111,127 +137,92 @@ public class StudentServiceImpl implements StudentService {
     }
 
     @Override
+    @Cacheable(cacheNames = "studentStatistics", key = "'count'")
     public int getCountOfStudents() {
-        LOGGER.info("Invoked method 'getCountOfStudents'");
+        LOGGER.debug("Invoked method 'getCountOfStudents'");
         return repository.getCountOfStudents();
     }
 
     @Override
+    @Cacheable(cacheNames = "studentStatistics", key = "'average_age'")
     public double getAverageAgeOfStudents() {
-        LOGGER.info("Invoked method 'getAverageAgeOfStudents'");
-        return getAll()
-                .stream()
-                .mapToInt(StudentDTO::getAge)
-                .average()
-                .getAsDouble();
+        LOGGER.debug("Invoked method 'getAverageAgeOfStudents'");
+        Double averageAge = repository.getAverageAgeOfStudents();
+        if (averageAge == null) {
+            LOGGER.error("StudentNotFoundException. Students not found in DB'Hogwarts'");
+            throw new StudentNotFoundException();
+        }
+        LOGGER.debug("The average age of students: {}", averageAge);
+        return averageAge;
     }
 
     @Override
-    public Collection<StudentDTO> findLastStudents(int count) {
-        LOGGER.info("Invoked method 'findLastStudents'");
-        Collection<Student> lastStudents = repository.findLastByIdDesc(count);
-        LOGGER.debug("The list of students size = {}", lastStudents.size());
-        return mapToDTO(lastStudents);
+    @Cacheable(cacheNames = "studentStatistics", key = "'statistics'")
+    public StudentStatisticsDTO getStatistics() {
+        LOGGER.debug("Invoked method 'getStatistics'");
+        StudentStatisticsDTO statistics = repository.getStatistics();
+        if (statistics.getCount() == 0) {
+            LOGGER.error("StudentNotFoundException. Students not found in DB'Hogwarts'");
+            throw new StudentNotFoundException();
+        }
+        statistics.setFaculties(repository.getStatisticsByFaculty());
+        LOGGER.debug("The statistics of students: {}", statistics);
+        return statistics;
     }
 
     @Override
-    public Collection<StudentDTO> getStudents(Integer... args) {
-        Collection<StudentDTO> students;
-        if (nullable(args[0], args[1], args[2], args[3])) {
-            students = getAll();
-        } else if (nullable(args[2], args[3]) && !nullable(args[0], args[1])) {
-            students = findByAgeBetween(args[0], args[1]);
-        } else if (nullable(args[3], args[0], args[1])) {
-            students = findByAge(args[2]);
-        } else if (nullable(args[0], args[1], args[2])) {
-            int countOfStudents = getCountOfStudents();
-            if (args[3] > countOfStudents) args[3] = countOfStudents;
-            students = findLastStudents(args[3]);
-        } else {
+    public Collection<StudentDTO> search(StudentQuery query) {
+        LOGGER.debug("Invoked method 'search', query = {}", query);
+        if (query.getLimit() == null) query.setLimit(DEFAULT_PAGE_LIMIT);
+        if (!isValid(query)) {
+            LOGGER.error("InvalidParamsException. Invalid search parameters {}", query);
             throw new InvalidParamsException();
         }
+        Collection<StudentDTO> students = repository.search(query);
+        if (students.isEmpty() && (query.getAfter() == null || query.getAfter() == 0)) {
+            LOGGER.error("StudentNotFoundException. Students matching {} not found in DB 'Hogwarts'", query);
+            throw new StudentNotFoundException();
+        }
+        LOGGER.debug("The list of found students size = {}", students.size());
         return students;
     }
 
+    @Override
+    public void streamAll(Consumer<StudentDTO> consumer) {
+        LOGGER.debug("Invoked method 'streamAll'");
+        try (Stream<StudentDTO> students = repository.streamAllOrderById()) {
+            students.forEach(consumer);
+        }
+    }
+
     @Override
     public void printParallel() {
-        LOGGER.info("Invoke method 'printParallel'");
-        resetCounter();
+        LOGGER.debug("Invoke method 'printParallel'");
         List<String> students = listForPrint();
-        CountDownLatch latch = new CountDownLatch(3);
-
-        new Thread(() -> {
-            for (int i = 0; i < 2; i++) {
-                print(students.get(i));
-            }
-            latch.countDown();
-        }).start();
-
-        new Thread(() -> {
-            for (int i = 2; i < 4; i++) {
-                print(students.get(i));
-            }
-            latch.countDown();
-        }).start();
-
-        new Thread(() -> {
-            for (int i = 4; i < students.size(); i++) {
-                print(students.get(i));
-            }
-            latch.countDown();
-        }).start();
-
-        try {
-            latch.await();
-        } catch (InterruptedException e) {
-            currentThread().interrupt();
-        }
+        AtomicInteger counter = new AtomicInteger();
+        partitionedExecutor.forEach(students, PRINT_PARTITIONS, name -> print(counter, name));
     }
 
     @Override
     public void printSynchronized() {
-        LOGGER.info("Invoke method 'printSynchronized'");
-        resetCounter();
+        LOGGER.debug("Invoke method 'printSynchronized'");
         List<String> students = listForPrint();
-        CountDownLatch latch = new CountDownLatch(3);
-
-        new Thread(() -> {
-            for (int i = 0; i < 2; i++) {
-                synchronized (latch) {
-                    print(students.get(i));
-                }
-            }
-            latch.countDown();
-        }).start();
-
-        new Thread(() -> {
-            for (int i = 2; i < 4; i++) {
-                synchronized (latch) {
-                    print(students.get(i));
-                }
-            }
-            latch.countDown();
-        }).start();
-
-        new Thread(() -> {
-            for (int i = 4; i < students.size(); i++) {
-                synchronized (latch) {
-                    print(students.get(i));
-                }
+        AtomicInteger counter = new AtomicInteger();
+        Lock lock = new ReentrantLock();
+        partitionedExecutor.forEach(students, PRINT_PARTITIONS, name -> {
+            lock.lock();
+            try {
+                print(counter, name);
+            } finally {
+                lock.unlock();
             }
-            latch.countDown();
-        }).start();
-
-        try {
-            latch.await();
-        } catch (InterruptedException e) {
-            currentThread().interrupt();
-        }
+        });
     }
 
     @Override
+    @CacheEvict(cacheNames = {"studentStatistics", "facultyStatistics"}, allEntries = true)
     public StudentDTO add(StudentDTO studentDTO) {
-        LOGGER.info("Invoked method 'add'");
+        LOGGER.debug("Invoked method 'add'");
         Faculty faculty = mapFromDTO(facultyService.getById(studentDTO.getFacultyId()));
         Student student = repository.save(
                 new Student()
@@ -245,21 +236,21 @@ public class StudentServiceImpl implements StudentService {
 
     @Override
     public Collection<StudentDTO> getAll() {
-        LOGGER.info("Invoked method 'getAll'");
-        Collection<Student> students = repository.findAll();
+        LOGGER.debug("Invoked method 'getAll'");
+        Collection<StudentDTO> students = repository.findAllStudents();
         if (students.isEmpty()) {
             LOGGER.error("StudentNotFoundException. Students not found in DB'Hogwarts'");
             throw new StudentNotFoundException();
         }
         LOGGER.debug("The list of all students size = {}", students.size());
-        return mapToDTO(students);
+        return students;
     }
 
     @Override
     public StudentDTO getById(long id) {
-        LOGGER.info("Invoked method 'getById'");
-        Optional<Student> foundStudent = repository.findById(id);
-        Student student;
+        LOGGER.debug("Invoked method 'getById'");
+        Optional<StudentDTO> foundStudent = repository.findStudentById(id);
+        StudentDTO student;
         if (foundStudent.isPresent()) {
             student = foundStudent.get();
             LOGGER.debug("The student with 'id = {}': {}", id, student);
@@ -267,22 +258,26 @@ public class StudentServiceImpl implements StudentService {
             LOGGER.error("StudentNotFoundException. Student with 'id = {}' not found in DB'Hogwarts'", id);
             throw new StudentNotFoundException();
         }
-        return mapToDTO(student);
+        return student;
     }
 
     @Override
+    @CacheEvict(cacheNames = {"studentStatistics", "facultyStatistics"}, allEntries = true)
     public StudentDTO change(StudentDTO studentDTO) {
         LOGGER.warn("Invoked method 'change' changes data about the student");
-        Optional<Student> changedStudent = repository.findById(studentDTO.getId());
+        Optional<Student> changedStudent = repository.findWithAvatarById(studentDTO.getId());
         if (changedStudent.isPresent()) {
             Student student = changedStudent.get();
             LOGGER.debug("The student before change: {}", student);
-            changedStudent.map(s -> {
-                s.setName(studentDTO.getName());
-                s.setAge(studentDTO.getAge());
-                repository.save(s);
-                return s;
-            });
+            checkVersion(student.getVersion(), studentDTO.getVersion());
+            student.setName(studentDTO.getName());
+            student.setAge(studentDTO.getAge());
+            try {
+                repository.saveAndFlush(student);
+            } catch (OptimisticLockingFailureException e) {
+                LOGGER.error("VersionConflictException. Student with 'id = {}' was changed concurrently", student.getId());
+                throw new VersionConflictException();
+            }
             LOGGER.debug("The student after change: {}", student);
             return mapToDTO(student);
         } else {
@@ -291,30 +286,43 @@ public class StudentServiceImpl implements StudentService {
         }
     }
 
-    @SneakyThrows
     @Override
+    @CacheEvict(cacheNames = {"studentStatistics", "facultyStatistics"}, allEntries = true)
+    public long patch(long id, long version, StudentPatchDTO patchDTO) {
+        LOGGER.warn("Invoked method 'patch' changes data about the student with 'id = {}' of version {}", id, version);
+        if (patchDTO.getName() == null && patchDTO.getAge() == null
+                || patchDTO.getName() != null && patchDTO.getName().isBlank()
+                || patchDTO.getAge() != null && patchDTO.getAge() < 0) {
+            LOGGER.error("InvalidParamsException. Invalid patch of student: {}", patchDTO);
+            throw new InvalidParamsException();
+        }
+        if (repository.patch(id, version, patchDTO.getName(), patchDTO.getAge()) == 0) {
+            if (!repository.existsById(id)) {
+                LOGGER.error("StudentNotFoundException. There is no such student with 'id = {}'", id);
+                throw new StudentNotFoundException();
+            }
+            LOGGER.error("VersionConflictException. Student with 'id = {}' is not of version {}", id, version);
+            throw new VersionConflictException();
+        }
+        return version + 1;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = {"studentStatistics", "facultyStatistics"}, allEntries = true)
     public StudentDTO deleteById(long id) {
         LOGGER.warn("Invoked method 'deleteById' delete data about the student with 'id = {}'", id);
-        Optional<Student> student = repository.findById(id);
-        student.ifPresentOrElse(s -> {
-            repository.delete(s);
-            LOGGER.debug("Student with 'id = {}' successfully deleted", id);
-        }, () -> {
+        Optional<StudentDTO> student = repository.findStudentById(id);
+        if (student.isEmpty()) {
             LOGGER.error("StudentNotFoundException. There is no such student with 'id = {}'", id);
             throw new StudentNotFoundException();
-        });
-        Student deletedStudent = student.get();
-        if (deletedStudent.getAvatar() != null) {
-            Files.deleteIfExists(Path.of(deletedStudent.getAvatar().getPath()));
-        }
-        return mapToDTO(deletedStudent);
-    }
-
-    private boolean nullable(Integer... any) {
-        for (Integer i : any) {
-            if (i != null) return false;
         }
-        return true;
+        avatarRepository.findFileByStudentId(id).ifPresent(avatar -> {
+            fileCleanupService.schedule(avatar);
+            avatarRepository.deleteAvatarByStudentId(id);
+        });
+        repository.deleteStudentById(id);
+        LOGGER.debug("Student with 'id = {}' successfully deleted", id);
+        return student.get();
     }
 
     private List<String> listForPrint() {
@@ -325,11 +333,44 @@ public class StudentServiceImpl implements StudentService {
                 .toList();
     }
 
-    private void print(String s) {
-        System.out.println(++count + ". " + s);
+    private boolean isValid(StudentQuery query) {
+        Sort sort = query.getSort();
+        return isNullOrNotNegative(query.getAgeFrom()) && isNullOrNotNegative(query.getAgeTo()) && isNullOrNotNegative(query.getAge())
+                && (query.getAgeFrom() == null || query.getAgeTo() == null || query.getAgeFrom() <= query.getAgeTo())
+                && (query.getNamePrefix() == null || !query.getNamePrefix().isBlank())
+                && query.getLimit() >= 1 && query.getLimit() <= MAX_PAGE_LIMIT
+                && sort.stream().allMatch(order -> SORT_FIELDS.contains(order.getProperty()))
+                && (query.getAfter() == null || query.getAfter() >= 0 && (sort.isUnsorted() || sort.equals(Sort.by("id"))));
+    }
+
+    private boolean isNullOrNotNegative(Integer value) {
+        return value == null || value >= 0;
+    }
+
+    private void validatePage(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getPageSize() > MAX_PAGE_LIMIT
+                || !pageable.getSort().stream().allMatch(order -> SORT_FIELDS.contains(order.getProperty()))) {
+            LOGGER.error("InvalidParamsException. Invalid page parameters {}", pageable);
+            throw new InvalidParamsException();
+        }
+    }
+
+    private void checkFacultyPage(long facultyId, Collection<?> students, boolean firstPage) {
+        if (students.isEmpty() && firstPage) {
+            LOGGER.error("StudentNotFoundException. Students of faculty with 'id = {}' not found in DB 'Hogwarts'", facultyId);
+            throw new StudentNotFoundException();
+        }
+        LOGGER.debug("The page of faculty students with 'id = {}' size = {}", facultyId, students.size());
     }
 
-    private void resetCounter() {
-        this.count = 0;
+    private void print(AtomicInteger counter, String s) {
+        LOGGER.info("{}. {}", counter.incrementAndGet(), s);
+    }
+
+    private void checkVersion(long actual, Long expected) {
+        if (expected != null && expected != actual) {
+            LOGGER.error("VersionConflictException. Expected version {}, but actual is {}", expected, actual);
+            throw new VersionConflictException();
+        }
     }
 }
@@ -26,4 +26,44 @@ student_id int references student (id)
 CREATE INDEX student_name_index ON student (name);
 
 --changeset student:3
-CREATE INDEX faculty_name_color_index ON faculty (name, color);
\ No newline at end of file
+CREATE INDEX faculty_name_color_index ON faculty (name, color);
+
+--changeset student:4 dbms:postgresql
+CREATE INDEX student_upper_name_index ON student (UPPER(name) text_pattern_ops);
+
+--changeset student:5 dbms:postgresql
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX faculty_name_trgm_index ON faculty USING gin (LOWER(name) gin_trgm_ops);
+CREATE INDEX faculty_color_trgm_index ON faculty USING gin (LOWER(color) gin_trgm_ops);
+
+--changeset student:7
+ALTER TABLE avatar ADD COLUMN content_hash varchar(64);
+ALTER TABLE avatar ADD COLUMN modified_at timestamp with time zone;
+
+--changeset student:8 dbms:postgresql
+CREATE SEQUENCE IF NOT EXISTS student_seq INCREMENT BY 50;
+ALTER SEQUENCE student_seq INCREMENT BY 50;
+SELECT setval('student_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM student));
+
+--changeset student:9
+CREATE INDEX student_faculty_id_id_index ON student (faculty_id, id);
+
+--changeset student:10
+CREATE INDEX student_age_id_index ON student (age, id);
+
+--changeset student:11
+ALTER TABLE student ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE faculty ADD COLUMN version bigint NOT NULL DEFAULT 0;
+
+--changeset student:12
+CREATE SEQUENCE IF NOT EXISTS file_cleanup_task_seq INCREMENT BY 50;
+CREATE TABLE file_cleanup_task (
+id bigint primary key,
+path varchar(255) not null,
+attempts int not null default 0,
+next_attempt_at timestamp with time zone not null
+);
+CREATE INDEX file_cleanup_task_next_attempt_at_index ON file_cleanup_task (next_attempt_at, id);
+
+--changeset student:13
+ALTER TABLE avatar ALTER COLUMN path SET DATA TYPE varchar(255);
@@ -0,0 +1,73 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.AvatarDTO;
+import ru.hogwarts.school.service.AvatarService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MetricsConfigurationTest {
+    private static final String FILE_PATH = "src/test/java/resources/test_avatar.png";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AvatarService avatarService;
+
+    @Test
+    void prometheus_shouldExposeServiceTimersAndDomainExceptions() {
+        ResponseEntity<String> notFound = restTemplate.getForEntity(url() + "/faculties/" + Long.MAX_VALUE, String.class);
+        assertThat(notFound.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(url() + "/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("school_service_seconds_bucket{")
+                .contains("method=\"getById\"")
+                .contains("le=\"+Inf\"")
+                .contains("school_exceptions_total{application=\"school\",exception=\"FacultyNotFoundException\"")
+                .contains("hikaricp_connections_active");
+    }
+
+    @Test
+    void recordBytesServed_shouldCountWholeFileOrRequestedRanges() throws Exception {
+        double before = meterRegistry.counter("avatars.bytes.served").count();
+        Resource avatar = avatarService.getAvatarResource(new AvatarDTO().setPath(FILE_PATH));
+
+        avatarService.recordBytesServed(avatar, null);
+        avatarService.recordBytesServed(avatar, "bytes=0-9,20-29");
+
+        assertThat(avatar).isExactlyInstanceOf(FileSystemResource.class);
+        assertThat(meterRegistry.counter("avatars.bytes.served").count() - before)
+                .isEqualTo((double) Files.size(Path.of(FILE_PATH)) + 20);
+    }
+
+    private String url() {
+        return "http://localhost:" + port;
+    }
+}
@@ -0,0 +1,133 @@
+package ru.hogwarts.school.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestLoggingFilterTest {
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RequestLoggingFilter.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void init() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detach() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void fastRequest_whenNotSampled_shouldNotBeLogged() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(0, Duration.ofHours(1));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/students"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void fastRequest_whenSampled_shouldBeLoggedAtInfo() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(1, Duration.ofHours(1));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/students"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals(Level.INFO, event.getLevel());
+        assertEquals("GET /students 200 0ms", event.getFormattedMessage().replaceAll("\\d+ms$", "0ms"));
+        assertEquals("uri", event.getKeyValuePairs().get(1).key);
+    }
+
+    @Test
+    void slowRequest_shouldAlwaysBeLoggedAtWarn() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(0, Duration.ZERO);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/students"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        assertEquals(Level.WARN, appender.list.get(0).getLevel());
+    }
+
+    @Test
+    void serverError_shouldAlwaysBeLoggedAtError() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(0, Duration.ofHours(1));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(500);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/students"), response, new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        assertEquals(Level.ERROR, appender.list.get(0).getLevel());
+    }
+
+    @Test
+    void failedRequest_shouldBeLoggedAsServerError() {
+        RequestLoggingFilter filter = new RequestLoggingFilter(0, Duration.ofHours(1));
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                throw new IllegalStateException("boom");
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/students"), new MockHttpServletResponse(), chain));
+
+        assertEquals(1, appender.list.size());
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals(Level.ERROR, event.getLevel());
+        assertTrue(event.getFormattedMessage().startsWith("GET /students 500 "));
+        assertEquals("boom", event.getThrowableProxy().getMessage());
+    }
+
+    @Test
+    void asyncRequest_shouldBeLoggedOnceOnFinalDispatch() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(0, Duration.ZERO);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/students");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                StandardServletAsyncWebRequest asyncWebRequest = new StandardServletAsyncWebRequest(req, resp);
+                WebAsyncUtils.getAsyncManager(req).setAsyncWebRequest(asyncWebRequest);
+                asyncWebRequest.startAsync();
+            }
+        });
+
+        filter.doFilter(request, response, chain);
+
+        assertTrue(appender.list.isEmpty());
+
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        response.setStatus(503);
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        assertTrue(appender.list.get(0).getFormattedMessage().startsWith("GET /students 503 "));
+    }
+}
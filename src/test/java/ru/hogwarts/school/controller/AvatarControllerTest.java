@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
@@ -12,13 +13,18 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import ru.hogwarts.school.dto.AvatarDTO;
+import ru.hogwarts.school.exception.FileNotExistException;
+import ru.hogwarts.school.enums.ThumbnailSize;
 import ru.hogwarts.school.service.AvatarService;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.Optional;
 
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -30,6 +36,9 @@ class AvatarControllerTest {
     private static final long ID = 1L;
 
     private static final String URL = "http://localhost:8080/avatars/{studentId}";
+    private static final String FILE_PATH = "src/test/java/resources/test_avatar.png";
+    private static final String HASH = "0123456789abcdef";
+    private static final Instant MODIFIED_AT = Instant.parse("2026-10-18T09:00:00Z");
     @Autowired
     private MockMvc mockMvc;
 
@@ -57,16 +66,15 @@ class AvatarControllerTest {
 
     @Test
     void testGetAvatarByStudentId() throws Exception {
-        String filePath = "src/test/java/resources/test_avatar.png";
-        byte[] data = Files.readAllBytes(Path.of(filePath));
+        byte[] data = Files.readAllBytes(Path.of(FILE_PATH));
         testAvatarDTO = new AvatarDTO()
                 .setId(ID)
                 .setName("test_avatar.png")
-                .setPath(filePath)
+                .setPath(FILE_PATH)
                 .setSize(data.length)
-                .setMediaType(MediaType.IMAGE_PNG_VALUE)
-                .setData(data);
+                .setMediaType(MediaType.IMAGE_PNG_VALUE);
         when(avatarService.getAvatar(ID)).thenReturn(testAvatarDTO);
+        when(avatarService.getAvatarResource(testAvatarDTO)).thenReturn(new FileSystemResource(FILE_PATH));
 
         ResultActions perform = mockMvc.perform(get(URL, ID));
 
@@ -75,32 +83,153 @@ class AvatarControllerTest {
                     MockHttpServletResponse response = result.getResponse();
                     assert response.getStatus() == HttpServletResponse.SC_OK;
                     assert Objects.equals(response.getContentType(), MediaType.IMAGE_PNG_VALUE);
-                    assert response.getContentLength() == testAvatarDTO.getData().length;
+                    assert response.getContentLength() == data.length;
                 })
-                .andExpect(content().bytes(testAvatarDTO.getData()))
+                .andExpect(content().bytes(data))
                 .andExpect(header().string("Content-Length", String.valueOf(testAvatarDTO.getSize())));
+        verify(avatarService).recordBytesServed(any(FileSystemResource.class), isNull());
+
+    }
+
+    @Test
+    void testGetAvatarByStudentId_shouldSendValidators() throws Exception {
+        mockCachedAvatar();
+
+        mockMvc.perform(get(URL, ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + HASH + "\""))
+                .andExpect(header().dateValue("Last-Modified", MODIFIED_AT.toEpochMilli()))
+                .andExpect(header().string("Cache-Control", "max-age=3600, public"));
+    }
+
+    @Test
+    void testGetAvatarByStudentId_whenETagMatches_shouldReturnNotModified() throws Exception {
+        mockCachedAvatar();
+
+        mockMvc.perform(get(URL, ID).header("If-None-Match", "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        verify(avatarService, never()).recordBytesServed(any(), any());
+    }
+
+    @Test
+    void testGetAvatarByStudentId_whenNotModifiedSince_shouldReturnNotModified() throws Exception {
+        mockCachedAvatar();
 
+        mockMvc.perform(get(URL, ID).header("If-Modified-Since", "Sun, 18 Oct 2026 10:00:00 GMT"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetAvatarByStudentId_withRange_shouldReturnPartialContent() throws Exception {
+        mockCachedAvatar();
+        byte[] data = Files.readAllBytes(Path.of(FILE_PATH));
+
+        mockMvc.perform(get(URL, ID).header("Range", "bytes=0-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 0-9/" + data.length))
+                .andExpect(content().bytes(Arrays.copyOf(data, 10)));
+        verify(avatarService).recordBytesServed(any(FileSystemResource.class), eq("bytes=0-9"));
+    }
+
+    @Test
+    void testGetAvatarByStudentId_withSize_shouldReturnThumbnail() throws Exception {
+        AvatarDTO original = originalAvatar();
+        testAvatarDTO = new AvatarDTO()
+                .setId(ID)
+                .setName("1_small.png")
+                .setPath(FILE_PATH)
+                .setMediaType(MediaType.IMAGE_PNG_VALUE)
+                .setContentHash(HASH + "-small")
+                .setModifiedAt(MODIFIED_AT);
+        when(avatarService.getAvatar(ID)).thenReturn(original);
+        when(avatarService.getThumbnail(original, ThumbnailSize.SMALL)).thenReturn(Optional.of(testAvatarDTO));
+        when(avatarService.getAvatarResource(testAvatarDTO)).thenReturn(new FileSystemResource(FILE_PATH));
+
+        mockMvc.perform(get(URL, ID).param("size", "small"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().string("ETag", "\"" + HASH + "-small\""))
+                .andExpect(header().string("Cache-Control", "max-age=3600, public"));
+        verify(avatarService, never()).getAvatarResource(original);
+    }
+
+    @Test
+    void testGetAvatarByStudentId_whenThumbnailNotGenerated_shouldReturnOriginalUncached() throws Exception {
+        AvatarDTO original = originalAvatar();
+        when(avatarService.getAvatar(ID)).thenReturn(original);
+        when(avatarService.getThumbnail(original, ThumbnailSize.SMALL)).thenReturn(Optional.empty());
+        when(avatarService.getAvatarResource(original)).thenReturn(new FileSystemResource(FILE_PATH));
+
+        mockMvc.perform(get(URL, ID).param("size", "small"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(header().doesNotExist("Last-Modified"));
+    }
+
+    @Test
+    void testGetAvatarByStudentId_withUnknownSize_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(URL, ID).param("size", "huge"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetAvatarByStudentId_whenFileNotExist() throws Exception {
+        testAvatarDTO = new AvatarDTO()
+                .setId(ID)
+                .setPath("/avatars/missing.png")
+                .setMediaType(MediaType.IMAGE_PNG_VALUE);
+        when(avatarService.getAvatar(ID)).thenReturn(testAvatarDTO);
+        when(avatarService.getAvatarResource(testAvatarDTO)).thenThrow(new FileNotExistException());
+
+        mockMvc.perform(get(URL, ID))
+                .andExpect(status().isConflict());
     }
 
     @Test
     void testDownloadAvatar() throws Exception {
+        byte[] data = Files.readAllBytes(Path.of(FILE_PATH));
         testAvatarDTO = new AvatarDTO()
                 .setId(ID)
                 .setName("test_avatar.png")
-                .setPath("/avatars/test_avatar.png")
-                .setSize("test image content".getBytes().length)
-                .setMediaType(MediaType.IMAGE_PNG_VALUE)
-                .setData("test image content".getBytes());
+                .setPath(FILE_PATH)
+                .setSize(data.length)
+                .setMediaType(MediaType.IMAGE_PNG_VALUE);
         when(avatarService.getAvatar(ID)).thenReturn(testAvatarDTO);
+        when(avatarService.getAvatarResource(testAvatarDTO)).thenReturn(new FileSystemResource(FILE_PATH));
 
-        ResultActions perform = mockMvc.perform(get(URL + "/download", ID)
-                .content(testAvatarDTO.getData())
-                .contentType(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+        ResultActions perform = mockMvc.perform(get(URL + "/download", ID));
 
         perform
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM_VALUE))
-                .andExpect(content().bytes(testAvatarDTO.getData()))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"test_avatar.png\""))
+                .andExpect(content().bytes(data))
                 .andDo(print());
     }
-}
\ No newline at end of file
+
+    private void mockCachedAvatar() {
+        testAvatarDTO = new AvatarDTO()
+                .setId(ID)
+                .setName("test_avatar.png")
+                .setPath(FILE_PATH)
+                .setMediaType(MediaType.IMAGE_PNG_VALUE)
+                .setContentHash(HASH)
+                .setModifiedAt(MODIFIED_AT);
+        when(avatarService.getAvatar(ID)).thenReturn(testAvatarDTO);
+        when(avatarService.getAvatarResource(testAvatarDTO)).thenReturn(new FileSystemResource(FILE_PATH));
+    }
+
+    private AvatarDTO originalAvatar() {
+        return new AvatarDTO()
+                .setId(ID)
+                .setName("1.png")
+                .setPath(FILE_PATH)
+                .setMediaType(MediaType.IMAGE_PNG_VALUE)
+                .setContentHash(HASH)
+                .setModifiedAt(MODIFIED_AT)
+                .setStudentId(ID);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.hogwarts.school.dto.BatchJobDTO;
+import ru.hogwarts.school.exception.BatchJobNotFoundException;
+import ru.hogwarts.school.enums.BatchJobStatus;
+import ru.hogwarts.school.enums.BatchJobType;
+import ru.hogwarts.school.service.StudentBatchService;
+
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@WebMvcTest(BatchJobController.class)
+class BatchJobControllerTest {
+    private static final String URL = "http://localhost:8080/batch-jobs";
+    private static final UUID ID = UUID.fromString("6f1c2a52-4b7e-4f1a-9d1e-0c8a2b3d4e5f");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StudentBatchService studentBatchService;
+
+    @Test
+    void startJob_shouldReturnAcceptedJob() throws Exception {
+        when(studentBatchService.start(BatchJobType.AVATAR_CHECK)).thenReturn(job(BatchJobStatus.RUNNING));
+
+        mockMvc.perform(post(URL).param("type", "avatar_check"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(ID.toString()))
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.total").value(100));
+    }
+
+    @Test
+    void startJob_whenUnknownType_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post(URL).param("type", "unknown"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(studentBatchService);
+    }
+
+    @Test
+    void getJob_shouldReturnProgress() throws Exception {
+        when(studentBatchService.getJob(ID)).thenReturn(job(BatchJobStatus.RUNNING).setProcessed(40));
+
+        mockMvc.perform(get(URL + "/{id}", ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(40));
+    }
+
+    @Test
+    void cancelJob_whenUnknown_shouldReturnNotFound() throws Exception {
+        when(studentBatchService.cancel(ID)).thenThrow(new BatchJobNotFoundException());
+
+        mockMvc.perform(delete(URL + "/{id}", ID))
+                .andExpect(status().isNotFound());
+    }
+
+    private BatchJobDTO job(BatchJobStatus status) {
+        return new BatchJobDTO()
+                .setId(ID)
+                .setType(BatchJobType.AVATAR_CHECK)
+                .setStatus(status)
+                .setTotal(100);
+    }
+}
@@ -6,10 +6,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.BatchImportResultDTO;
 import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.FacultyPatchDTO;
+import ru.hogwarts.school.dto.FacultyStatisticsDTO;
+import ru.hogwarts.school.dto.ImportErrorDTO;
 import ru.hogwarts.school.dto.StudentDTO;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.repository.FacultyRepository;
@@ -80,6 +89,25 @@ class FacultyControllerTest {
         assertThat(response.getBody().size()).isEqualTo(1);
     }
 
+    @Test
+    void testSearchFaculties() {
+        facultyRepository.save(new Faculty().setName("Gryffindor").setColor("Scarlet"));
+        facultyRepository.save(new Faculty().setName("Slytherin").setColor("Green"));
+        facultyRepository.save(new Faculty().setName("Ravenclaw").setColor("Blue"));
+
+        ResponseEntity<Collection> response =
+                restTemplate.getForEntity(url(port) + "?search_term=GR", Collection.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(2);
+
+        ResponseEntity<Collection> page =
+                restTemplate.getForEntity(url(port) + "?search_term=GR&numOfPage=2&size=1", Collection.class);
+
+        assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(page.getBody()).hasSize(1);
+    }
+
     @Test
     void testGetFacultyById() {
         long facultyId = testFacultyDTO.getId();
@@ -112,6 +140,73 @@ class FacultyControllerTest {
         assertThat(response.getBody().size()).isEqualTo(1);
     }
 
+    @Test
+    void testGetStudentsOfFaculty_pagedSortedAndKeyset() {
+        long facultyId = testFacultyDTO.getId();
+        for (int i = 1; i <= 5; i++) {
+            studentRepository.save(mapFromDTO(new StudentDTO().setName("student " + i).setAge(10 + i).setFacultyId(facultyId)));
+        }
+
+        ResponseEntity<StudentDTO[]> page = restTemplate.getForEntity(
+                url(port, facultyId) + "/students?page=1&size=2&sort=age,desc", StudentDTO[].class);
+        assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(page.getBody()).extracting(StudentDTO::getAge).containsExactly(13, 12);
+
+        StudentDTO[] first = restTemplate.getForObject(url(port, facultyId) + "/students?size=2", StudentDTO[].class);
+        StudentDTO[] next = restTemplate.getForObject(
+                url(port, facultyId) + "/students?size=2&after=" + first[1].getId(), StudentDTO[].class);
+        assertThat(first).extracting(StudentDTO::getName).containsExactly("student 1", "student 2");
+        assertThat(next).extracting(StudentDTO::getName).containsExactly("student 3", "student 4");
+
+        ResponseEntity<String> invalidSort = restTemplate.getForEntity(
+                url(port, facultyId) + "/students?sort=faculty", String.class);
+        assertThat(invalidSort.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void testGetStudentsOfFaculty_withFieldsProjection() {
+        long facultyId = testFacultyDTO.getId();
+        studentRepository.save(mapFromDTO(new StudentDTO().setName("Harry").setAge(11).setFacultyId(facultyId)));
+        studentRepository.save(mapFromDTO(new StudentDTO().setName("Ron").setAge(12).setFacultyId(facultyId)));
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                url(port, facultyId) + "/students?fields=name&sort=name,desc", String.class);
+        ResponseEntity<String> invalid = restTemplate.getForEntity(
+                url(port, facultyId) + "/students?fields=name,avatar", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo("[{\"name\":\"Ron\"},{\"name\":\"Harry\"}]");
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void testGetFacultyStatistics() {
+        long facultyId = testFacultyDTO.getId();
+        Faculty empty = facultyRepository.save(new Faculty().setName("empty faculty").setColor("grey"));
+        studentRepository.save(mapFromDTO(new StudentDTO().setName("first").setAge(12).setFacultyId(facultyId)));
+        studentRepository.save(mapFromDTO(new StudentDTO().setName("second").setAge(15).setFacultyId(facultyId)));
+
+        ResponseEntity<FacultyStatisticsDTO[]> response =
+                restTemplate.getForEntity(url(port) + "/stats", FacultyStatisticsDTO[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(
+                new FacultyStatisticsDTO(facultyId, testFacultyDTO.getName(), 2, 13.5, 0),
+                new FacultyStatisticsDTO(empty.getId(), "empty faculty", 0, null, 0));
+    }
+
+    @Test
+    void testDeleteFaculty_whenHasStudents_shouldReturnBadRequest() {
+        long facultyId = testFacultyDTO.getId();
+        studentRepository.save(mapFromDTO(new StudentDTO().setName("any name").setAge(12).setFacultyId(facultyId)));
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                url(port, facultyId), HttpMethod.DELETE, null, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(facultyRepository.existsById(facultyId)).isTrue();
+    }
+
     @Test
     void testChangeFaculty() {
         long facultyId = testFacultyDTO.getId();
@@ -122,6 +217,7 @@ class FacultyControllerTest {
                         .setColor("another color");
 
         restTemplate.put(url(port), expectedFacultyDTO);
+        expectedFacultyDTO.setVersion(testFacultyDTO.getVersion() + 1);
 
         ResponseEntity<FacultyDTO> response = restTemplate.getForEntity(url(port, facultyId), FacultyDTO.class);
         assertThat(response).isNotNull();
@@ -132,6 +228,43 @@ class FacultyControllerTest {
                 .isEqualTo(expectedFacultyDTO);
     }
 
+    @Test
+    void testChangeFaculty_withStaleIfMatch_shouldReturnPreconditionFailed() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch("\"" + (testFacultyDTO.getVersion() + 1) + "\"");
+        FacultyDTO changedFacultyDTO = new FacultyDTO()
+                .setId(testFacultyDTO.getId())
+                .setName("new name")
+                .setColor("another color");
+
+        ResponseEntity<String> response = restTemplate.exchange(url(port), HttpMethod.PUT,
+                new HttpEntity<>(changedFacultyDTO, headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(facultyRepository.findById(testFacultyDTO.getId()))
+                .hasValueSatisfying(faculty -> assertThat(faculty.getName()).isEqualTo(testFacultyDTO.getName()));
+    }
+
+    @Test
+    void testPatchFaculty() {
+        String eTag = restTemplate.getForEntity(url(port, testFacultyDTO.getId()), FacultyDTO.class)
+                .getHeaders().getETag();
+
+        ResponseEntity<Void> response = patch(testFacultyDTO.getId(), eTag, new FacultyPatchDTO().setColor("blue"));
+        ResponseEntity<Void> stale = patch(testFacultyDTO.getId(), eTag, new FacultyPatchDTO().setColor("red"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + (testFacultyDTO.getVersion() + 1) + "\"");
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(patch(Long.MAX_VALUE, eTag, new FacultyPatchDTO().setColor("red")).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(facultyRepository.findById(testFacultyDTO.getId()))
+                .hasValueSatisfying(faculty -> {
+                    assertThat(faculty.getName()).isEqualTo(testFacultyDTO.getName());
+                    assertThat(faculty.getColor()).isEqualTo("blue");
+                });
+    }
+
     @Test
     void testDeleteFaculty() {
         long facultyId = testFacultyDTO.getId();
@@ -143,6 +276,49 @@ class FacultyControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
+    @Test
+    void testImportFacultiesCsv() {
+        String csv = "name,color\n" +
+                "Slytherin,green\n" +
+                "TEST FACULTY,any color\n" +
+                "\"Hufflepuff, House\",yellow\n" +
+                "slytherin,silver\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+        ResponseEntity<BatchImportResultDTO> response = restTemplate.postForEntity(
+                url(port) + "/import", new HttpEntity<>(csv, headers), BatchImportResultDTO.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getReceived()).isEqualTo(4);
+        assertThat(response.getBody().getImported()).isEqualTo(2);
+        assertThat(response.getBody().getErrors()).containsExactly(
+                new ImportErrorDTO(2, "Faculty with name 'TEST FACULTY' already exists"),
+                new ImportErrorDTO(4, "Faculty with name 'slytherin' already exists"));
+        assertThat(facultyRepository.findAll())
+                .extracting(Faculty::getName)
+                .containsExactlyInAnyOrder(testFacultyDTO.getName(), "Slytherin", "Hufflepuff, House");
+    }
+
+    @Test
+    void testExportFacultiesCsv() {
+        ResponseEntity<String> response = restTemplate.getForEntity(url(port) + "/export", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().lines().toList()).containsExactly(
+                "id,name,color",
+                testFacultyDTO.getId() + "," + testFacultyDTO.getName() + "," + testFacultyDTO.getColor());
+    }
+
+    private ResponseEntity<Void> patch(long id, String eTag, FacultyPatchDTO patchDTO) {
+        restTemplate.getRestTemplate().setRequestFactory(new JdkClientHttpRequestFactory());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(eTag);
+        return restTemplate.exchange(url(port, id), HttpMethod.PATCH, new HttpEntity<>(patchDTO, headers), Void.class);
+    }
+
     private String url(int port) {
         return "http://localhost:" + port + "/faculties";
     }
@@ -0,0 +1,50 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.hogwarts.school.service.InfoService;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@WebMvcTest(InfoController.class)
+@Import(InfoService.class)
+class InfoControllerTest {
+    private static final String URL = "http://localhost:8080/sum";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void sum_withDefaults_shouldSumFirstMillion() throws Exception {
+        mockMvc.perform(get(URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.n").value(1_000_000))
+                .andExpect(jsonPath("$.mode").value("RANGE"))
+                .andExpect(jsonPath("$.sum").value(500_000_500_000L))
+                .andExpect(jsonPath("$.durationNanos").isNumber());
+    }
+
+    @Test
+    void sum_withModeAndN_shouldUseRequestedMode() throws Exception {
+        mockMvc.perform(get(URL).param("n", "100").param("mode", "parallel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("PARALLEL"))
+                .andExpect(jsonPath("$.sum").value(5050));
+    }
+
+    @Test
+    void sum_withInvalidParams_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(URL).param("mode", "recursive"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(URL).param("n", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(URL).param("n", "1000000000"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -6,11 +6,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.BatchImportResultDTO;
 import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.ImportErrorDTO;
 import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.dto.StudentPatchDTO;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.FacultyRepository;
@@ -164,6 +174,189 @@ class StudentControllerTest {
                 .doesNotContain(student1.getName());
     }
 
+    @Test
+    void testGetStudentsWithCombinedFilters() {
+        Faculty faculty = mapFromDTO(testFacultyDTO);
+        Faculty other = facultyRepository.save(new Faculty().setName("other faculty").setColor("blue"));
+        studentRepository.save(new Student().setName("Hermione").setAge(13).setFaculty(faculty));
+        studentRepository.save(new Student().setName("Harry").setAge(14).setFaculty(faculty));
+        studentRepository.save(new Student().setName("Hannah").setAge(14).setFaculty(other));
+
+        ResponseEntity<StudentDTO[]> response = restTemplate.getForEntity(
+                url(port) + "?prefix=h&from=13&facultyId=" + faculty.getId() + "&sort=age,desc&limit=5",
+                StudentDTO[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(StudentDTO::getName).containsExactly("Harry", "Hermione");
+
+        ResponseEntity<String> invalidSort = restTemplate.getForEntity(url(port) + "?sort=faculty", String.class);
+        assertThat(invalidSort.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void testGetStudentsAfter() {
+        Faculty faculty = mapFromDTO(testFacultyDTO);
+        Student second = studentRepository.save(new Student()
+                .setName("Student 2")
+                .setAge(10)
+                .setFaculty(faculty));
+        Student third = studentRepository.save(new Student()
+                .setName("Student 3")
+                .setAge(10)
+                .setFaculty(faculty));
+
+        ResponseEntity<Collection> response = restTemplate.getForEntity(
+                url(port) + "?after=" + testStudentDTO.getId() + "&limit=1", Collection.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().size()).isEqualTo(1);
+        Map<String, Object> student = (Map<String, Object>) response.getBody().iterator().next();
+        assertThat(student.get("name")).isEqualTo(second.getName());
+
+        ResponseEntity<Collection> lastPage = restTemplate.getForEntity(
+                url(port) + "?after=" + third.getId(), Collection.class);
+
+        assertThat(lastPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(lastPage.getBody()).isEmpty();
+    }
+
+    @Test
+    void testGetStudentsAfter_whenLimitTooLarge_shouldReturnBadRequest() {
+        ResponseEntity<String> response = restTemplate.getForEntity(url(port) + "?limit=100000", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void testStreamStudents() {
+        studentRepository.save(new Student()
+                .setName("any student")
+                .setAge(13)
+                .setFaculty(mapFromDTO(testFacultyDTO)));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                url(port), HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().lines().toList())
+                .hasSize(2)
+                .allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+    }
+
+    @Test
+    void testImportStudents() {
+        long facultyId = testFacultyDTO.getId();
+        String body = "[" +
+                "{\"name\": \"Ron\", \"age\": 11, \"facultyId\": " + facultyId + "}," +
+                "{\"name\": \"Ghost\", \"age\": 11, \"facultyId\": " + (facultyId + 100) + "}," +
+                "{\"name\": \"" + "x".repeat(300) + "\", \"age\": 11, \"facultyId\": " + facultyId + "}," +
+                "{\"name\": \"Ginny\", \"age\": 10, \"facultyId\": " + facultyId + "}" +
+                "]";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<BatchImportResultDTO> response = restTemplate.postForEntity(
+                url(port) + "/batch", new HttpEntity<>(body, headers), BatchImportResultDTO.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BatchImportResultDTO result = response.getBody();
+        assertThat(result).isNotNull();
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ImportErrorDTO::getRow).containsExactly(2L, 3L);
+        assertThat(studentRepository.findAllByFacultyId(facultyId, PageRequest.of(0, 10, Sort.by("id"))))
+                .extracting(StudentDTO::getName)
+                .containsExactly(testStudentDTO.getName(), "Ron", "Ginny");
+    }
+
+    @Test
+    void testImportStudentsStream() {
+        long facultyId = testFacultyDTO.getId();
+        String body = "{\"name\": \"Fred\", \"age\": 13, \"facultyId\": " + facultyId + "}\n" +
+                "{\"name\": \n" +
+                "\n" +
+                "{\"name\": \"George\", \"age\": 13, \"facultyId\": " + facultyId + "}\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+        ResponseEntity<BatchImportResultDTO> response = restTemplate.postForEntity(
+                url(port) + "/batch", new HttpEntity<>(body, headers), BatchImportResultDTO.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BatchImportResultDTO result = response.getBody();
+        assertThat(result).isNotNull();
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ImportErrorDTO::getRow).containsExactly(2L);
+        assertThat(studentRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void testImportStudentsCsv() {
+        long facultyId = testFacultyDTO.getId();
+        String csv = "name,age,faculty_id\n" +
+                "\"Weasley, Percy\",15," + facultyId + "\n" +
+                "Luna,11,\n" +
+                "Ghost,11," + (facultyId + 100) + "\n" +
+                "Broken,eleven," + facultyId + "\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+        ResponseEntity<BatchImportResultDTO> response = restTemplate.postForEntity(
+                url(port) + "/import", new HttpEntity<>(csv, headers), BatchImportResultDTO.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BatchImportResultDTO result = response.getBody();
+        assertThat(result).isNotNull();
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ImportErrorDTO::getRow).containsExactly(3L, 4L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Faculty with id = " + (facultyId + 100) + " not found");
+        assertThat(studentRepository.findAllStudents())
+                .extracting(StudentDTO::getName)
+                .containsExactly(testStudentDTO.getName(), "Weasley, Percy", "Luna");
+    }
+
+    @Test
+    void testExportStudentsCsv() {
+        Student percy = studentRepository.save(new Student().setName("Weasley, Percy").setAge(15));
+
+        ResponseEntity<String> response = restTemplate.getForEntity(url(port) + "/export", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType("text/csv"))).isTrue();
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().lines().toList()).containsExactly(
+                "id,name,age,faculty_id",
+                testStudentDTO.getId() + "," + testStudentDTO.getName() + "," + testStudentDTO.getAge() + "," + testFacultyDTO.getId(),
+                percy.getId() + ",\"Weasley, Percy\",15,");
+    }
+
+    @Test
+    void testGetNamesStartingWith() {
+        Faculty faculty = mapFromDTO(testFacultyDTO);
+        studentRepository.save(new Student().setName("Hermione").setAge(12).setFaculty(faculty));
+        studentRepository.save(new Student().setName("Harry").setAge(12).setFaculty(faculty));
+        studentRepository.save(new Student().setName("hagrid").setAge(40).setFaculty(faculty));
+        studentRepository.save(new Student().setName("Ha%ry").setAge(12).setFaculty(faculty));
+
+        ResponseEntity<List> response = restTemplate.getForEntity(
+                url(port) + "/names?prefix=ha&limit=2&offset=1", List.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly("HAGRID", "HARRY");
+
+        ResponseEntity<List> escaped = restTemplate.getForEntity(
+                url(port) + "/names?prefix={prefix}", List.class, "ha%");
+
+        assertThat(escaped.getBody()).containsExactly("HA%RY");
+    }
+
     @Test
     void testGetStudentById() {
         ResponseEntity<StudentDTO> response = restTemplate.getForEntity(
@@ -172,6 +365,8 @@ class StudentControllerTest {
         assertThat(response).isNotNull();
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + testStudentDTO.getVersion() + "\"");
+
         StudentDTO actualStudentDTO = response.getBody();
         assertThat(actualStudentDTO).isNotNull();
         assertThat(actualStudentDTO.getName()).isEqualTo(testStudentDTO.getName());
@@ -211,6 +406,50 @@ class StudentControllerTest {
         assertThat(actualStudentDTO.getAge()).isEqualTo(expectedStudentDTO.getAge());
     }
 
+    @Test
+    void testChangeStudentData_withIfMatch() {
+        long id = testStudentDTO.getId();
+        StudentDTO changedStudentDTO = new StudentDTO()
+                .setId(id)
+                .setName("new student")
+                .setAge(20);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch("\"" + testStudentDTO.getVersion() + "\"");
+
+        ResponseEntity<StudentDTO> response = restTemplate.exchange(url(port), HttpMethod.PUT,
+                new HttpEntity<>(changedStudentDTO, headers), StudentDTO.class);
+        ResponseEntity<String> stale = restTemplate.exchange(url(port), HttpMethod.PUT,
+                new HttpEntity<>(changedStudentDTO.setName("lost update"), headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + (testStudentDTO.getVersion() + 1) + "\"");
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getVersion()).isEqualTo(testStudentDTO.getVersion() + 1);
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(studentRepository.findById(id))
+                .hasValueSatisfying(student -> assertThat(student.getName()).isEqualTo("new student"));
+    }
+
+    @Test
+    void testPatchStudent() {
+        long id = testStudentDTO.getId();
+        String eTag = restTemplate.getForEntity(url(port, id), StudentDTO.class).getHeaders().getETag();
+
+        ResponseEntity<Void> response = patch(id, eTag, new StudentPatchDTO().setAge(30));
+        ResponseEntity<Void> stale = patch(id, eTag, new StudentPatchDTO().setName("lost update"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + (testStudentDTO.getVersion() + 1) + "\"");
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(patch(id, null, new StudentPatchDTO().setAge(31)).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(studentRepository.findById(id))
+                .hasValueSatisfying(student -> {
+                    assertThat(student.getName()).isEqualTo(testStudentDTO.getName());
+                    assertThat(student.getAge()).isEqualTo(30);
+                    assertThat(student.getVersion()).isEqualTo(testStudentDTO.getVersion() + 1);
+                });
+    }
+
     @Test
     void testDeleteStudent() {
         long id = testStudentDTO.getId();
@@ -222,6 +461,13 @@ class StudentControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
+    private ResponseEntity<Void> patch(long id, String eTag, StudentPatchDTO patchDTO) {
+        restTemplate.getRestTemplate().setRequestFactory(new JdkClientHttpRequestFactory());
+        HttpHeaders headers = new HttpHeaders();
+        if (eTag != null) headers.setIfMatch(eTag);
+        return restTemplate.exchange(url(port, id), HttpMethod.PATCH, new HttpEntity<>(patchDTO, headers), Void.class);
+    }
+
     private String url(int port) {
         String url = "http://localhost:";
         return url + port + "/students";
@@ -0,0 +1,221 @@
+package ru.hogwarts.school.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.FacultyStatisticsDTO;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.dto.StudentQuery;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class StudentRepositoryTest {
+    private static final int STUDENTS = 10;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Faculty faculty;
+
+    @BeforeEach
+    void init() {
+        faculty = new Faculty().setName("Gryffindor").setColor("red");
+        entityManager.persist(faculty);
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student()
+                    .setName("Student " + i)
+                    .setAge(12)
+                    .setFaculty(i % 2 == 0 ? faculty : null);
+            entityManager.persist(student);
+            entityManager.persist(new Avatar()
+                    .setPath("avatars/" + i + ".png")
+                    .setMediaType("image/png")
+                    .setStudent(student));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void readPaths_shouldExecuteSingleStatement() {
+        assertSingleStatement(() -> studentRepository.findAllStudents(), STUDENTS);
+        assertSingleStatement(() -> studentRepository.findAllByFacultyId(faculty.getId(), PageRequest.of(0, 3, Sort.by("id"))), 3);
+        assertSingleStatement(() -> studentRepository.findAllByFacultyIdAfter(faculty.getId(), 0, Limit.of(10)), STUDENTS / 2);
+        assertSingleStatement(() -> studentRepository.findFieldsByFacultyId(faculty.getId(), List.of("name"), null, PageRequest.of(0, 2)), 2);
+        assertSingleStatement(() -> studentRepository.search(new StudentQuery().setAgeFrom(10).setAgeTo(14)), STUDENTS);
+        assertSingleStatement(() -> studentRepository.search(new StudentQuery().setAge(12).setFacultyId(faculty.getId())), STUDENTS / 2);
+        assertSingleStatement(() -> studentRepository.search(new StudentQuery().setAfter(0L).setLimit(5)), 5);
+        assertSingleStatement(() -> studentRepository.search(new StudentQuery().setLimit(3).setSort(Sort.by(Sort.Direction.DESC, "id"))), 3);
+        long minId = studentRepository.getMinId();
+        assertSingleStatement(() -> avatarRepository.findByStudentIdBetween(minId, minId + 3), 4);
+        assertEquals(4, studentRepository.countByIdBetween(minId, minId + 3));
+        assertSingleStatement(() -> {
+            try (Stream<StudentDTO> students = studentRepository.streamAllOrderById()) {
+                return students.toList();
+            }
+        }, STUDENTS);
+    }
+
+    @Test
+    void findAllStudents_shouldMapFacultyId() {
+        List<StudentDTO> students = studentRepository.findAllStudents();
+
+        assertEquals(faculty.getId(), students.get(0).getFacultyId());
+        assertEquals(0, students.get(1).getFacultyId());
+    }
+
+    @Test
+    void findStudentById_shouldExecuteSingleStatement() {
+        long id = studentRepository.findAllStudents().get(0).getId();
+        statistics.clear();
+
+        assertTrue(studentRepository.findStudentById(id).isPresent());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findWithFacultyById_shouldFetchFacultyAndAvatarInOneStatement() {
+        long id = studentRepository.findAllStudents().get(0).getId();
+        statistics.clear();
+
+        Student student = studentRepository.findWithFacultyById(id).orElseThrow();
+
+        assertEquals("Gryffindor", student.getFaculty().getName());
+        assertNotNull(student.getAvatar());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void facultyStatistics_shouldAggregateInSingleStatement() {
+        Faculty empty = new Faculty().setName("Hufflepuff").setColor("yellow");
+        entityManager.persist(empty);
+        entityManager.flush();
+
+        assertSingleStatement(() -> facultyRepository.getStatistics(), 2);
+        assertEquals(List.of(
+                        new FacultyStatisticsDTO(faculty.getId(), "Gryffindor", STUDENTS / 2, 12.0, STUDENTS / 2),
+                        new FacultyStatisticsDTO(empty.getId(), "Hufflepuff", 0, null, 0)),
+                facultyRepository.getStatistics());
+    }
+
+    @Test
+    void findFieldsByFacultyId_shouldSelectRequestedFieldsInOrder() {
+        List<StudentDTO> all = studentRepository.findAllByFacultyId(faculty.getId(), PageRequest.of(0, 10, Sort.by("id")));
+
+        List<Map<String, Object>> page = studentRepository.findFieldsByFacultyId(
+                faculty.getId(), List.of("name", "id"), null, PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "id")));
+        List<Map<String, Object>> keyset = studentRepository.findFieldsByFacultyId(
+                faculty.getId(), List.of("facultyId"), all.get(2).getId(), PageRequest.of(0, 10));
+
+        assertEquals(2, page.size());
+        assertEquals(List.of("name", "id"), List.copyOf(page.get(0).keySet()));
+        assertEquals(all.get(2).getId(), page.get(0).get("id"));
+        assertEquals(all.get(2).getName(), page.get(0).get("name"));
+        assertEquals(List.of(Map.of("facultyId", faculty.getId()), Map.of("facultyId", faculty.getId())), keyset);
+    }
+
+    @Test
+    void search_shouldCombineFiltersSortAndLimit() {
+        entityManager.persist(new Student().setName("Harry_1").setAge(11).setFaculty(entityManager.find(Faculty.class, faculty.getId())));
+        entityManager.persist(new Student().setName("harryX").setAge(14).setFaculty(entityManager.find(Faculty.class, faculty.getId())));
+        entityManager.persist(new Student().setName("Harry_2").setAge(13));
+        entityManager.flush();
+
+        List<StudentDTO> byPrefix = studentRepository.search(new StudentQuery()
+                .setNamePrefix("harry_")
+                .setSort(Sort.by(Sort.Direction.DESC, "age")));
+        List<StudentDTO> combined = studentRepository.search(new StudentQuery()
+                .setNamePrefix("harry")
+                .setAgeFrom(12)
+                .setFacultyId(faculty.getId())
+                .setLimit(5));
+        List<StudentDTO> last = studentRepository.search(new StudentQuery()
+                .setLimit(2)
+                .setSort(Sort.by(Sort.Direction.DESC, "id")));
+
+        assertEquals(List.of("Harry_2", "Harry_1"), byPrefix.stream().map(StudentDTO::getName).toList());
+        assertEquals(List.of("harryX"), combined.stream().map(StudentDTO::getName).toList());
+        assertEquals(faculty.getId(), combined.get(0).getFacultyId());
+        assertEquals(List.of("Harry_2", "harryX"), last.stream().map(StudentDTO::getName).toList());
+    }
+
+    @Test
+    void existsByFacultyId_shouldNotLoadStudents() {
+        statistics.clear();
+
+        assertTrue(studentRepository.existsByFacultyId(faculty.getId()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(studentRepository.existsByFacultyId(faculty.getId() + 1000));
+    }
+
+    @Test
+    void patch_shouldUpdateMatchingVersionInSingleStatement() {
+        long id = studentRepository.getMinId();
+        statistics.clear();
+
+        assertEquals(1, studentRepository.patch(id, 0, null, 15));
+        assertEquals(0, studentRepository.patch(id, 0, "lost update", null));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        entityManager.clear();
+        Student student = studentRepository.findById(id).orElseThrow();
+        assertEquals("Student 0", student.getName());
+        assertEquals(15, student.getAge());
+        assertEquals(1, student.getVersion());
+    }
+
+    @Test
+    void deletes_shouldNotLoadEntities() {
+        long id = studentRepository.getMinId();
+        long avatarId = avatarRepository.findByStudentId(id + 1).orElseThrow().getId();
+        statistics.clear();
+
+        assertEquals(1, avatarRepository.deleteAvatarByStudentId(id));
+        assertEquals(1, studentRepository.deleteStudentById(id));
+        assertEquals(1, avatarRepository.deleteAvatarById(avatarId));
+        assertEquals(0, studentRepository.deleteStudentById(id));
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(STUDENTS - 1, studentRepository.count());
+        assertEquals(STUDENTS - 2, avatarRepository.count());
+    }
+
+    private void assertSingleStatement(Supplier<? extends Collection<?>> query, int expectedSize) {
+        statistics.clear();
+        assertEquals(expectedSize, query.get().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
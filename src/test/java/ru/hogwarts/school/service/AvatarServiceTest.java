@@ -0,0 +1,226 @@
+package ru.hogwarts.school.service;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.hogwarts.school.dto.AvatarDTO;
+import ru.hogwarts.school.exception.StudentNotFoundException;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.enums.ThumbnailSize;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.FileCleanupTaskRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class AvatarServiceTest {
+    private static final String FILE_PATH = "src/test/java/resources/test_avatar.png";
+
+    @TempDir
+    static Path avatarDir;
+
+    @Autowired
+    private AvatarService avatarService;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private FileCleanupTaskRepository fileCleanupTaskRepository;
+
+    @Autowired
+    private AvatarThumbnailService thumbnailService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Student student;
+
+    @DynamicPropertySource
+    static void avatarProperties(DynamicPropertyRegistry registry) {
+        registry.add("avatars.folder.path", () -> avatarDir + "/");
+    }
+
+    @BeforeEach
+    void init() {
+        avatarRepository.deleteAll();
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+        student = studentRepository.save(new Student()
+                .setName("test student")
+                .setAge(12));
+    }
+
+    @Test
+    void addAvatar_shouldStoreFileAndMetadata() throws Exception {
+        byte[] data = Files.readAllBytes(Path.of(FILE_PATH));
+        MockMultipartFile file = new MockMultipartFile("avatar", "test_avatar.png", MediaType.IMAGE_PNG_VALUE, data);
+
+        avatarService.addAvatar(student.getId(), file);
+
+        AvatarDTO actual = avatarService.getAvatar(student.getId());
+        Path stored = Path.of(actual.getPath());
+        assertEquals(avatarDir, stored.getParent());
+        assertTrue(stored.getFileName().toString().matches(student.getId() + "-[0-9a-f-]{36}\\.png"));
+        assertArrayEquals(data, Files.readAllBytes(stored));
+        assertEquals(data.length, actual.getSize());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data)), actual.getContentHash());
+        assertNotNull(actual.getModifiedAt());
+        try (Stream<Path> files = Files.list(avatarDir)) {
+            assertTrue(files.noneMatch(f -> f.getFileName().toString().startsWith("upload-")));
+        }
+    }
+
+    @Test
+    void addAvatar_shouldStorePathThatFitsColumn() throws Exception {
+        avatarService.addAvatar(student.getId(), new MockMultipartFile(
+                "avatar", "portrait.jpeg", MediaType.IMAGE_JPEG_VALUE, "jpeg".getBytes()));
+
+        String path = avatarService.getAvatar(student.getId()).getPath();
+        SpringLiquibase liquibase = new SpringLiquibase();
+        DataSource migrated = new DriverManagerDataSource("jdbc:h2:mem:liquibase;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        liquibase.setDataSource(migrated);
+        liquibase.setChangeLog("classpath:liquibase/changelog-master.yml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+        assertTrue(path.length() <= pathColumnSize(migrated));
+        assertTrue(path.length() <= pathColumnSize(dataSource));
+    }
+
+    @Test
+    void addAvatar_whenFileNameHasNoExtension_shouldTakeItFromContentType() throws Exception {
+        avatarService.addAvatar(student.getId(), new MockMultipartFile(
+                "avatar", "portrait", MediaType.IMAGE_JPEG_VALUE, "jpeg".getBytes()));
+
+        assertTrue(avatarService.getAvatar(student.getId()).getPath().endsWith(".jpeg"));
+    }
+
+    @Test
+    void addAvatar_whenExtensionUnknown_shouldUseDefault() throws Exception {
+        avatarService.addAvatar(student.getId(), new MockMultipartFile(
+                "avatar", "portrait", null, "data".getBytes()));
+
+        assertTrue(avatarService.getAvatar(student.getId()).getPath().endsWith(".bin"));
+    }
+
+    @Test
+    void addAvatar_whenAvatarReplaced_shouldUpdateExistingRow() throws Exception {
+        avatarService.addAvatar(student.getId(), new MockMultipartFile(
+                "avatar", "first.png", MediaType.IMAGE_PNG_VALUE, "first".getBytes()));
+        avatarService.addAvatar(student.getId(), new MockMultipartFile(
+                "avatar", "second.png", MediaType.IMAGE_PNG_VALUE, "second content".getBytes()));
+
+        AvatarDTO actual = avatarService.getAvatar(student.getId());
+        assertEquals(1, avatarRepository.count());
+        assertEquals("second content".length(), actual.getSize());
+        assertArrayEquals("second content".getBytes(), Files.readAllBytes(Path.of(actual.getPath())));
+    }
+
+    @Test
+    void deleteAvatar_shouldDeleteRowAndCleanUpFileAfterCommit() throws Exception {
+        avatarService.addAvatar(student.getId(), new MockMultipartFile(
+                "avatar", "first.png", MediaType.IMAGE_PNG_VALUE, "first".getBytes()));
+        AvatarDTO avatar = avatarService.getAvatar(student.getId());
+
+        avatarService.deleteAvatar(avatar.getId());
+
+        assertEquals(0, avatarRepository.count());
+        assertTrue(studentRepository.existsById(student.getId()));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((Files.exists(Path.of(avatar.getPath())) || fileCleanupTaskRepository.count() > 0)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(Files.exists(Path.of(avatar.getPath())));
+        assertEquals(0, fileCleanupTaskRepository.count());
+    }
+
+    @Test
+    void addAvatar_whenAvatarReplaced_shouldCleanUpOldFileAndThumbnails() throws Exception {
+        avatarService.addAvatar(student.getId(), new MockMultipartFile(
+                "avatar", "first.png", MediaType.IMAGE_PNG_VALUE, "first".getBytes()));
+        Path old = Path.of(avatarService.getAvatar(student.getId()).getPath());
+        Path oldSmall = Files.writeString(thumbnailService.getThumbnailPath(old, ThumbnailSize.SMALL), "old thumbnail");
+
+        avatarService.addAvatar(student.getId(), new MockMultipartFile(
+                "avatar", "second.png", MediaType.IMAGE_PNG_VALUE, "not an image".getBytes()));
+
+        AvatarDTO actual = avatarService.getAvatar(student.getId());
+        assertNotEquals(old, Path.of(actual.getPath()));
+        assertTrue(avatarService.getThumbnail(actual, ThumbnailSize.SMALL).isEmpty());
+        awaitCleanup();
+        assertFalse(Files.exists(old));
+        assertFalse(Files.exists(oldSmall));
+        assertArrayEquals("not an image".getBytes(), Files.readAllBytes(Path.of(actual.getPath())));
+    }
+
+    @Test
+    void addAvatar_afterDelete_shouldNotBeRemovedByPendingCleanup() throws Exception {
+        avatarService.addAvatar(student.getId(), new MockMultipartFile(
+                "avatar", "first.png", MediaType.IMAGE_PNG_VALUE, "first".getBytes()));
+        avatarService.deleteAvatar(avatarService.getAvatar(student.getId()).getId());
+
+        avatarService.addAvatar(student.getId(), new MockMultipartFile(
+                "avatar", "first.png", MediaType.IMAGE_PNG_VALUE, "first".getBytes()));
+
+        awaitCleanup();
+        AvatarDTO actual = avatarService.getAvatar(student.getId());
+        assertArrayEquals("first".getBytes(), Files.readAllBytes(Path.of(actual.getPath())));
+    }
+
+    @Test
+    void addAvatar_whenStudentNotFound_shouldNotWriteFile() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("avatar", "test_avatar.png", MediaType.IMAGE_PNG_VALUE, "data".getBytes());
+
+        assertThrows(StudentNotFoundException.class, () -> avatarService.addAvatar(student.getId() + 1, file));
+        try (Stream<Path> files = Files.list(avatarDir)) {
+            assertTrue(files.map(f -> f.getFileName().toString())
+                    .noneMatch(name -> name.startsWith("upload-") || name.startsWith((student.getId() + 1) + "-")));
+        }
+    }
+
+    private int pathColumnSize(DataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet column = connection.getMetaData().getColumns(null, null, "AVATAR", "PATH")) {
+            assertTrue(column.next());
+            return column.getInt("COLUMN_SIZE");
+        }
+    }
+
+    private void awaitCleanup() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (fileCleanupTaskRepository.count() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, fileCleanupTaskRepository.count());
+    }
+}
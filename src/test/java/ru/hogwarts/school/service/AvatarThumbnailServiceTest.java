@@ -0,0 +1,129 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.hogwarts.school.enums.ThumbnailSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvatarThumbnailServiceTest {
+    private static final long STUDENT_ID = 1L;
+
+    @TempDir
+    Path avatarDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ThreadPoolExecutor executor;
+    private AvatarThumbnailService thumbnailService;
+    private Path original;
+
+    @BeforeEach
+    void init() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = AvatarThumbnailService.newExecutor(1, 1);
+        thumbnailService = new AvatarThumbnailService(executor, meterRegistry);
+        original = avatarDir.resolve(STUDENT_ID + ".png");
+        ImageIO.write(new BufferedImage(512, 256, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+    }
+
+    @AfterEach
+    void shutdown() {
+        thumbnailService.shutdown();
+    }
+
+    @Test
+    void generateThumbnails_shouldWriteDownscaledVariants() throws Exception {
+        thumbnailService.generateThumbnails(original).get(10, TimeUnit.SECONDS);
+
+        BufferedImage small = ImageIO.read(thumbnailService.getThumbnailPath(original, ThumbnailSize.SMALL).toFile());
+        BufferedImage medium = ImageIO.read(thumbnailService.getThumbnailPath(original, ThumbnailSize.MEDIUM).toFile());
+        assertEquals(64, small.getWidth());
+        assertEquals(32, small.getHeight());
+        assertEquals(256, medium.getWidth());
+        assertEquals(128, medium.getHeight());
+        assertEquals(1, meterRegistry.get("avatars.thumbnails.generation").timer().count());
+    }
+
+    @Test
+    void getThumbnailPath_shouldBeDerivedFromOriginalName() {
+        Path upload = avatarDir.resolve(STUDENT_ID + "-0b1f.jpg");
+
+        assertEquals(avatarDir.resolve(STUDENT_ID + "-0b1f_small.png"), thumbnailService.getThumbnailPath(upload, ThumbnailSize.SMALL));
+        assertEquals(avatarDir.resolve(STUDENT_ID + "-0b1f_medium.png"), thumbnailService.getThumbnailPath(upload, ThumbnailSize.MEDIUM));
+    }
+
+    @Test
+    void generateThumbnails_whenNotAnImage_shouldSkip() throws Exception {
+        Files.writeString(original, "not an image");
+
+        thumbnailService.generateThumbnails(original).get(10, TimeUnit.SECONDS);
+
+        assertFalse(Files.exists(thumbnailService.getThumbnailPath(original, ThumbnailSize.SMALL)));
+    }
+
+    @Test
+    void generateThumbnails_whenAvatarRemovedWhileQueued_shouldNotLeaveThumbnails() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        CompletableFuture<Void> generated = thumbnailService.generateThumbnails(original);
+
+        Files.delete(original);
+        release.countDown();
+        generated.get(10, TimeUnit.SECONDS);
+
+        for (Path thumbnail : thumbnailService.getThumbnailPaths(original)) {
+            assertFalse(Files.exists(thumbnail));
+        }
+    }
+
+    @Test
+    void generateThumbnails_whenQueueIsFull_shouldRunOnCallerThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> awaitQuietly(release));
+        try {
+            assertEquals(1.0, meterRegistry.get("avatars.thumbnails.queue").gauge().value());
+
+            CompletableFuture<Void> generated = thumbnailService.generateThumbnails(original);
+
+            assertTrue(generated.isDone());
+            assertTrue(Files.exists(thumbnailService.getThumbnailPath(original, ThumbnailSize.SMALL)));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void generateThumbnails_afterShutdown_shouldFailFuture() {
+        thumbnailService.shutdown();
+
+        CompletableFuture<Void> generated = thumbnailService.generateThumbnails(original);
+
+        assertTrue(generated.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> generated.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertFalse(Files.exists(thumbnailService.getThumbnailPath(original, ThumbnailSize.SMALL)));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.cache.type=caffeine")
+class FacultyCacheTest {
+    @SpyBean
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyService facultyService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Faculty faculty;
+
+    @BeforeEach
+    void init() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        faculty = facultyRepository.save(new Faculty()
+                .setName("Gryffindor")
+                .setColor("red"));
+        clearInvocations(facultyRepository);
+    }
+
+    @Test
+    void addStudent_shouldReadFacultyFromCache() {
+        for (int i = 0; i < 3; i++) {
+            studentService.add(new StudentDTO()
+                    .setName("student " + i)
+                    .setAge(12)
+                    .setFacultyId(faculty.getId()));
+        }
+
+        verify(facultyRepository, times(1)).findById(anyLong());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "faculty").tag("result", "hit")
+                .functionCounter().count() >= 2);
+    }
+
+    @Test
+    void getAllAndLongestName_shouldBeServedFromCache() {
+        facultyService.getAll();
+        facultyService.getFaculties(null, 1, 10);
+        facultyService.longestFacultyName();
+        facultyService.longestFacultyName();
+
+        verify(facultyRepository, times(2)).findAll();
+    }
+
+    @Test
+    void change_shouldEvictFaculty() {
+        facultyService.getById(faculty.getId());
+        facultyService.getAll();
+
+        facultyService.change(new FacultyDTO()
+                .setId(faculty.getId())
+                .setName("Slytherin")
+                .setColor("green"));
+
+        assertEquals("Slytherin", facultyService.getById(faculty.getId()).getName());
+        assertEquals("Slytherin", facultyService.longestFacultyName());
+    }
+
+    @Test
+    void add_shouldEvictFacultyList() {
+        assertEquals(1, facultyService.getAll().size());
+
+        facultyService.add(new FacultyDTO()
+                .setName("Hufflepuff House")
+                .setColor("yellow"));
+
+        assertEquals(2, facultyService.getAll().size());
+        assertEquals("Hufflepuff House", facultyService.longestFacultyName());
+    }
+}
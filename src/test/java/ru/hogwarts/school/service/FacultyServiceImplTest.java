@@ -6,13 +6,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.FacultyPatchDTO;
+import ru.hogwarts.school.dto.FacultyStatisticsDTO;
 import ru.hogwarts.school.exception.FacultyAlreadyAddedException;
 import ru.hogwarts.school.exception.FacultyNotFoundException;
 import ru.hogwarts.school.exception.InvalidDeletionRequestException;
+import ru.hogwarts.school.exception.InvalidParamsException;
+import ru.hogwarts.school.exception.VersionConflictException;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -28,6 +34,9 @@ class FacultyServiceImplTest {
     @Mock
     private FacultyRepository facultyRepository;
 
+    @Mock
+    private StudentRepository studentRepository;
+
     @InjectMocks
     private FacultyServiceImpl facultyService;
 
@@ -50,29 +59,28 @@ class FacultyServiceImplTest {
 
     @Test
     void getFaculties() {
-        Collection<Faculty> filteredByName =
-                Stream.of(mock(Faculty.class), mock(Faculty.class)).toList();
-        Collection<Faculty> filteredByColor =
-                Stream.of(mock(Faculty.class), mock(Faculty.class)).toList();
-        Collection<FacultyDTO> expected = Stream.concat(
-                        mapToDTO(filteredByName).stream(),
-                        mapToDTO(filteredByColor).stream())
-                .toList();
-        when(facultyRepository.findByNameContainsIgnoreCase(anyString())).thenReturn(filteredByName);
-        when(facultyRepository.findByColorContainsIgnoreCase(anyString())).thenReturn(filteredByColor);
+        List<Faculty> filtered = List.of(testFaculty, mock(Faculty.class));
+        when(facultyRepository.findByNameOrColorLike(eq("%te\\_st%"), any(Pageable.class))).thenReturn(filtered);
 
-        Collection<FacultyDTO> actual = facultyService.getFaculties(anyString());
+        Collection<FacultyDTO> actual = facultyService.getFaculties("TE_ST", 1, 10);
 
-        assertEquals(actual.size(), expected.size());
+        verify(facultyRepository, times(1)).findByNameOrColorLike(anyString(), any(Pageable.class));
+        assertIterableEquals(mapToDTO(filtered), actual);
     }
 
     @Test
     void testGetFaculties_whenNoMatches_FacultyNotFoundException() {
         String searchTerm = "NonExistent";
-        when(facultyRepository.findByNameContainsIgnoreCase(searchTerm)).thenReturn(Collections.emptyList());
-        when(facultyRepository.findByColorContainsIgnoreCase(searchTerm)).thenReturn(Collections.emptyList());
+        when(facultyRepository.findByNameOrColorLike(anyString(), any(Pageable.class))).thenReturn(Collections.emptyList());
 
-        assertThrows(FacultyNotFoundException.class, () -> facultyService.getFaculties(searchTerm));
+        assertThrows(FacultyNotFoundException.class, () -> facultyService.getFaculties(searchTerm, 1, 10));
+    }
+
+    @Test
+    void testGetFaculties_whenPageInvalid_InvalidParamsException() {
+        assertThrows(InvalidParamsException.class, () -> facultyService.getFaculties("name", 0, 10));
+        assertThrows(InvalidParamsException.class, () -> facultyService.getFaculties("name", 1, 0));
+        verifyNoInteractions(facultyRepository);
     }
 
     @Test
@@ -147,11 +155,11 @@ class FacultyServiceImplTest {
                 .setId(testFaculty.getId())
                 .setName("new name")
                 .setColor("new color");
-        when(facultyRepository.save(any(Faculty.class))).thenReturn(expected);
+        when(facultyRepository.saveAndFlush(any(Faculty.class))).thenReturn(expected);
 
         FacultyDTO actual = facultyService.change(mapToDTO(expected));
 
-        verify(facultyRepository, times(1)).save(any(Faculty.class));
+        verify(facultyRepository, times(1)).saveAndFlush(any(Faculty.class));
         verify(facultyRepository, times(1)).findById(anyLong());
         assertEquals(expected.getName(), actual.getName());
         assertEquals(expected.getColor(), actual.getColor());
@@ -159,6 +167,39 @@ class FacultyServiceImplTest {
         assertEquals(testFaculty.getColor(), actual.getColor());
     }
 
+    @Test
+    void change_whenVersionIsStale_shouldThrowException() {
+        testFaculty.setVersion(2);
+        when(facultyRepository.findById(testFacultyDTO.getId())).thenReturn(Optional.of(testFaculty));
+
+        assertThrows(VersionConflictException.class, () -> facultyService.change(testFacultyDTO.setVersion(1L)));
+        verify(facultyRepository, never()).saveAndFlush(any(Faculty.class));
+    }
+
+    @Test
+    void patch_shouldReturnNextVersion() {
+        when(facultyRepository.patch(1L, 3L, null, "new color")).thenReturn(1);
+
+        assertEquals(4L, facultyService.patch(1L, 3L, new FacultyPatchDTO().setColor("new color")));
+        verify(facultyRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void patch_whenVersionIsStale_shouldThrowException() {
+        when(facultyRepository.patch(1L, 3L, "new name", null)).thenReturn(0);
+        when(facultyRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(VersionConflictException.class, () -> facultyService.patch(1L, 3L, new FacultyPatchDTO().setName("new name")));
+    }
+
+    @Test
+    void patch_whenFacultyNotFound_shouldThrowException() {
+        when(facultyRepository.patch(1L, 3L, "new name", null)).thenReturn(0);
+        when(facultyRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(FacultyNotFoundException.class, () -> facultyService.patch(1L, 3L, new FacultyPatchDTO().setName("new name")));
+    }
+
     @Test
     void change_whenFacultyNotFound_ShouldThrowException() {
         when(facultyRepository.findById(testFacultyDTO.getId()))
@@ -175,6 +216,7 @@ class FacultyServiceImplTest {
 
         FacultyDTO actualFacultyDTO = facultyService.deleteById(testFacultyDTO.getId());
 
+        verify(studentRepository).existsByFacultyId(testFacultyDTO.getId());
         verify(facultyRepository, times(1)).delete(testFaculty);
         assertEquals(testFacultyDTO, actualFacultyDTO);
     }
@@ -190,11 +232,29 @@ class FacultyServiceImplTest {
 
     @Test
     void testDeleteById_InvalidDeletionRequestException() {
-        testFaculty.setStudents(Collections.singletonList(new Student()));  // Добавляем студента
-
+        testFaculty.setStudents(mock(Collection.class));
         when(facultyRepository.findById(1L)).thenReturn(Optional.of(testFaculty));
+        when(studentRepository.existsByFacultyId(1L)).thenReturn(true);
 
         assertThrows(InvalidDeletionRequestException.class, () -> facultyService.deleteById(1L));
         verify(facultyRepository, never()).delete(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getStatistics_shouldReturnGroupedStatistics() {
+        List<FacultyStatisticsDTO> statistics = List.of(new FacultyStatisticsDTO(1L, "test name", 4, 12.5, 3));
+        when(facultyRepository.getStatistics()).thenReturn(statistics);
+
+        Collection<FacultyStatisticsDTO> actual = facultyService.getStatistics();
+
+        assertIterableEquals(statistics, actual);
+        assertEquals(0.75, actual.iterator().next().getAvatarCoverage());
+    }
+
+    @Test
+    void getStatistics_whenNoFaculties_shouldThrowException() {
+        when(facultyRepository.getStatistics()).thenReturn(List.of());
+
+        assertThrows(FacultyNotFoundException.class, () -> facultyService.getStatistics());
+    }
+}
@@ -0,0 +1,144 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.AvatarFileDTO;
+import ru.hogwarts.school.model.FileCleanupTask;
+import ru.hogwarts.school.enums.ThumbnailSize;
+import ru.hogwarts.school.repository.FileCleanupTaskRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileCleanupServiceTest {
+    private static final long STUDENT_ID = 1L;
+
+    @TempDir
+    Path avatarDir;
+
+    @Mock
+    private FileCleanupTaskRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AvatarThumbnailService thumbnailService;
+    private FileCleanupService fileCleanupService;
+
+    @BeforeEach
+    void init() {
+        thumbnailService = new AvatarThumbnailService(AvatarThumbnailService.newExecutor(1, 1), new SimpleMeterRegistry());
+        fileCleanupService = new FileCleanupService(repository, thumbnailService, new TransactionTemplate(transactionManager),
+                10, 3, Duration.ofSeconds(1), Duration.ofSeconds(3));
+    }
+
+    @AfterEach
+    void tearDown() {
+        thumbnailService.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void schedule_shouldQueueAvatarAndThumbnails() {
+        Path avatar = avatarDir.resolve(STUDENT_ID + "-0b1f.png");
+
+        fileCleanupService.schedule(new AvatarFileDTO(STUDENT_ID, avatar.toString()));
+
+        ArgumentCaptor<List<FileCleanupTask>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(captor.capture());
+        List<FileCleanupTask> tasks = captor.getValue();
+        assertEquals(1 + ThumbnailSize.values().length, tasks.size());
+        assertEquals(avatar.toString(), tasks.get(0).getPath());
+        assertEquals(thumbnailService.getThumbnailPath(avatar, ThumbnailSize.SMALL).toString(), tasks.get(1).getPath());
+        assertTrue(tasks.stream().allMatch(task -> task.getAttempts() == 0 && task.getNextAttemptAt() != null));
+    }
+
+    @Test
+    void processDue_shouldDeleteFileAndTask() throws Exception {
+        Path avatar = Files.createFile(avatarDir.resolve(STUDENT_ID + ".png"));
+        FileCleanupTask existing = task(avatar, 0);
+        FileCleanupTask missing = task(avatarDir.resolve("missing.png"), 0);
+        when(repository.claimDue(any(Instant.class)))
+                .thenReturn(Optional.of(existing), Optional.of(missing), Optional.empty());
+
+        fileCleanupService.processDue();
+
+        assertFalse(Files.exists(avatar));
+        verify(repository).delete(existing);
+        verify(repository).delete(missing);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void processDue_shouldClaimAtMostBatchSizeTasks() {
+        when(repository.claimDue(any(Instant.class)))
+                .thenAnswer(invocation -> Optional.of(task(avatarDir.resolve("missing.png"), 0)));
+
+        fileCleanupService.processDue();
+
+        verify(repository, times(10)).claimDue(any(Instant.class));
+        verify(repository, times(10)).delete(any(FileCleanupTask.class));
+        verify(transactionManager, times(10)).commit(any());
+    }
+
+    @Test
+    void processDue_whenFileNotDeleted_shouldRetryWithBackoff() throws Exception {
+        Path directory = Files.createDirectory(avatarDir.resolve("busy"));
+        Files.createFile(directory.resolve("file"));
+        FileCleanupTask task = task(directory, 1);
+        when(repository.claimDue(any(Instant.class))).thenReturn(Optional.of(task), Optional.empty());
+        Instant before = Instant.now();
+
+        fileCleanupService.processDue();
+
+        assertEquals(2, task.getAttempts());
+        assertFalse(task.getNextAttemptAt().isBefore(before.plusSeconds(2)));
+        verify(repository, never()).delete(any(FileCleanupTask.class));
+    }
+
+    @Test
+    void processDue_whenAttemptsExhausted_shouldAbandonTask() throws Exception {
+        Path directory = Files.createDirectory(avatarDir.resolve("busy"));
+        Files.createFile(directory.resolve("file"));
+        FileCleanupTask task = task(directory, 2);
+        when(repository.claimDue(any(Instant.class))).thenReturn(Optional.of(task), Optional.empty());
+
+        fileCleanupService.processDue();
+
+        assertTrue(Files.exists(directory));
+        verify(repository).delete(task);
+    }
+
+    @Test
+    void backoff_shouldDoubleUpToMaximum() {
+        assertEquals(Duration.ofSeconds(1), fileCleanupService.backoff(1));
+        assertEquals(Duration.ofSeconds(2), fileCleanupService.backoff(2));
+        assertEquals(Duration.ofSeconds(3), fileCleanupService.backoff(3));
+        assertEquals(Duration.ofSeconds(3), fileCleanupService.backoff(100));
+    }
+
+    private FileCleanupTask task(Path path, int attempts) {
+        return new FileCleanupTask()
+                .setPath(path.toString())
+                .setAttempts(attempts)
+                .setNextAttemptAt(Instant.now());
+    }
+}
@@ -0,0 +1,41 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.hogwarts.school.dto.SumDTO;
+import ru.hogwarts.school.exception.InvalidParamsException;
+import ru.hogwarts.school.enums.SumMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InfoServiceTest {
+    private final InfoService infoService = new InfoService();
+
+    @ParameterizedTest
+    @EnumSource(SumMode.class)
+    void sum_shouldReturnSameResultInEveryMode(SumMode mode) {
+        for (long n : new long[]{1, 2, 1_000, 1_000_000, 3_000_001}) {
+            assertEquals(n * (n + 1) / 2, InfoService.compute(n, mode), mode + " n=" + n);
+        }
+    }
+
+    @Test
+    void sum_shouldReportModeAndTiming() {
+        SumDTO actual = infoService.sum(1_000_000, SumMode.PARALLEL);
+
+        assertEquals(500_000_500_000L, actual.getSum());
+        assertEquals(1_000_000, actual.getN());
+        assertEquals(SumMode.PARALLEL, actual.getMode());
+        assertTrue(actual.getDurationNanos() > 0);
+        assertTrue(actual.getProcessors() >= 1);
+        assertEquals(1, infoService.sum(10, SumMode.RANGE).getProcessors());
+    }
+
+    @Test
+    void sum_whenNOutOfBounds_shouldThrowException() {
+        assertThrows(InvalidParamsException.class, () -> infoService.sum(0, SumMode.FORMULA));
+        assertThrows(InvalidParamsException.class, () -> infoService.sum(InfoService.MAX_N + 1, SumMode.FORMULA));
+        assertEquals(InfoService.MAX_N * (InfoService.MAX_N + 1) / 2, infoService.sum(InfoService.MAX_N, SumMode.FORMULA).getSum());
+    }
+}
@@ -0,0 +1,115 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedExecutorTest {
+    private static final int POOL_SIZE = 3;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PartitionedExecutor executor;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PartitionedExecutor(POOL_SIZE, 100, Duration.ofSeconds(5), meterRegistry);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.destroy();
+    }
+
+    @Test
+    void partition_shouldSplitIntoContiguousBalancedParts() {
+        List<Integer> items = IntStream.range(0, 7).boxed().toList();
+
+        List<List<Integer>> parts = PartitionedExecutor.partition(items, 3);
+
+        assertEquals(List.of(List.of(0, 1), List.of(2, 3), List.of(4, 5, 6)), parts);
+        assertEquals(List.of(List.of(0), List.of(1)), PartitionedExecutor.partition(List.of(0, 1), 5));
+        assertTrue(PartitionedExecutor.partition(List.of(), 3).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> PartitionedExecutor.partition(items, 0));
+    }
+
+    @Test
+    void map_shouldJoinResultsInPartitionOrder() {
+        List<Integer> items = IntStream.range(0, 1000).boxed().toList();
+
+        List<List<Integer>> results = executor.map(items, 8, part -> {
+            sleep(8 - part.get(0) / 125);
+            return List.copyOf(part);
+        });
+
+        assertEquals(8, results.size());
+        assertEquals(items, results.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void map_shouldRethrowTaskException() {
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> executor.map(List.of(1, 2, 3), 3, part -> {
+                    if (part.get(0) == 2) throw new IllegalStateException("boom");
+                    return part;
+                }));
+
+        assertEquals("boom", thrown.getMessage());
+    }
+
+    @Test
+    void map_shouldNotExceedPoolSizeUnderConcurrentCallers() throws Exception {
+        int callers = 8;
+        Set<String> workers = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(callers);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        for (int c = 0; c < callers; c++) {
+            List<Integer> items = IntStream.range(c * 100, (c + 1) * 100).boxed().toList();
+            futures.add(clients.submit(() -> {
+                start.await();
+                return executor.map(items, 4, part -> {
+                    workers.add(Thread.currentThread().getName());
+                    sleep(5);
+                    return part.stream().mapToInt(Integer::intValue).sum();
+                });
+            }));
+        }
+        start.countDown();
+
+        for (int c = 0; c < callers; c++) {
+            List<Integer> sums = futures.get(c).get(10, TimeUnit.SECONDS);
+            assertEquals(4, sums.size());
+            assertEquals(IntStream.range(c * 100, (c + 1) * 100).sum(), sums.stream().mapToInt(Integer::intValue).sum());
+        }
+        clients.shutdown();
+        executor.destroy();
+
+        assertTrue(workers.stream().allMatch(name -> name.startsWith("school-task-")), workers::toString);
+        assertTrue(workers.size() <= POOL_SIZE, workers::toString);
+        assertEquals(callers * 4, meterRegistry.get("executor.completed").tag("name", "school-task").functionCounter().count());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
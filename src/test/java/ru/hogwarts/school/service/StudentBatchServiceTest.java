@@ -0,0 +1,161 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.hogwarts.school.dto.BatchJobDTO;
+import ru.hogwarts.school.exception.BatchJobNotFoundException;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.enums.BatchJobStatus;
+import ru.hogwarts.school.enums.BatchJobType;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class StudentBatchServiceTest {
+    private static final int CHUNK_SIZE = 10;
+
+    @TempDir
+    Path avatarDir;
+
+    private StudentRepository studentRepository;
+    private AvatarRepository avatarRepository;
+    private AvatarThumbnailService thumbnailService;
+    private StudentBatchService batchService;
+
+    @BeforeEach
+    void init() {
+        studentRepository = mock(StudentRepository.class);
+        avatarRepository = mock(AvatarRepository.class);
+        thumbnailService = mock(AvatarThumbnailService.class);
+        batchService = new StudentBatchService(studentRepository, avatarRepository, thumbnailService, 2, CHUNK_SIZE, 3);
+    }
+
+    @AfterEach
+    void shutdown() {
+        batchService.shutdown();
+    }
+
+    @Test
+    void start_shouldProcessAllRangesInChunks() throws Exception {
+        givenStudents(1, 95);
+        Path valid = Files.write(avatarDir.resolve("1.png"), new byte[]{1, 2, 3});
+        when(avatarRepository.findByStudentIdBetween(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            return LongStream.of(1, 50).filter(id -> id >= from && id <= to)
+                    .mapToObj(id -> avatar(id, id == 1 ? valid : avatarDir.resolve("missing.png")))
+                    .toList();
+        });
+
+        BatchJobDTO job = batchService.start(BatchJobType.AVATAR_CHECK);
+        BatchJobDTO actual = awaitFinished(job.getId());
+
+        assertEquals(BatchJobStatus.COMPLETED, actual.getStatus());
+        assertEquals(95, actual.getTotal());
+        assertEquals(95, actual.getProcessed());
+        assertEquals(1, actual.getProblems());
+        assertNotNull(actual.getFinishedAt());
+        verify(studentRepository, atLeast(10)).countByIdBetween(anyLong(), anyLong());
+        verify(studentRepository, never()).findAllStudents();
+    }
+
+    @Test
+    void start_whenNoStudents_shouldCompleteImmediately() {
+        givenNoStudents();
+
+        BatchJobDTO actual = batchService.start(BatchJobType.THUMBNAILS);
+
+        assertEquals(BatchJobStatus.COMPLETED, actual.getStatus());
+        assertEquals(0, actual.getProcessed());
+        verifyNoInteractions(avatarRepository);
+    }
+
+    @Test
+    void cancel_shouldStopSchedulingRemainingChunks() throws Exception {
+        givenStudents(1, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(avatarRepository.findByStudentIdBetween(anyLong(), anyLong())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        BatchJobDTO job = batchService.start(BatchJobType.AVATAR_CHECK);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(BatchJobStatus.RUNNING, batchService.getJob(job.getId()).getStatus());
+        batchService.cancel(job.getId());
+        release.countDown();
+        BatchJobDTO actual = awaitFinished(job.getId());
+
+        assertEquals(BatchJobStatus.CANCELLED, actual.getStatus());
+        assertTrue(actual.getProcessed() < actual.getTotal());
+    }
+
+    @Test
+    void getJob_whenUnknown_shouldThrowException() {
+        assertThrows(BatchJobNotFoundException.class, () -> batchService.getJob(UUID.randomUUID()));
+        assertThrows(BatchJobNotFoundException.class, () -> batchService.cancel(UUID.randomUUID()));
+    }
+
+    @Test
+    void start_shouldKeepLimitedHistoryOfFinishedJobs() {
+        givenNoStudents();
+
+        for (int i = 0; i < 5; i++) {
+            batchService.start(BatchJobType.AVATAR_CHECK);
+        }
+
+        assertEquals(3, batchService.getJobs().size());
+    }
+
+    private void givenNoStudents() {
+        when(studentRepository.getCountOfStudents()).thenReturn(0);
+        when(studentRepository.getMinId()).thenReturn(null);
+        when(studentRepository.getMaxId()).thenReturn(null);
+    }
+
+    private void givenStudents(long minId, long maxId) {
+        when(studentRepository.getCountOfStudents()).thenReturn((int) (maxId - minId + 1));
+        when(studentRepository.getMinId()).thenReturn(minId);
+        when(studentRepository.getMaxId()).thenReturn(maxId);
+        when(studentRepository.countByIdBetween(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            assertTrue(to - from < CHUNK_SIZE);
+            return to - from + 1;
+        });
+    }
+
+    private Avatar avatar(long studentId, Path path) {
+        return new Avatar()
+                .setId(studentId)
+                .setPath(path.toString())
+                .setSize(3)
+                .setStudent(new Student().setId(studentId));
+    }
+
+    private BatchJobDTO awaitFinished(UUID id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        BatchJobDTO job = batchService.getJob(id);
+        while (job.getStatus() == BatchJobStatus.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = batchService.getJob(id);
+        }
+        return job;
+    }
+}
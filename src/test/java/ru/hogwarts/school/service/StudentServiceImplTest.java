@@ -1,26 +1,45 @@
 package ru.hogwarts.school.service;
 
-import lombok.SneakyThrows;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.hogwarts.school.dto.AvatarFileDTO;
 import ru.hogwarts.school.dto.FacultyDTO;
+import ru.hogwarts.school.dto.FacultyAgeStatisticsDTO;
 import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.dto.StudentPatchDTO;
+import ru.hogwarts.school.dto.StudentQuery;
+import ru.hogwarts.school.dto.StudentStatisticsDTO;
+import ru.hogwarts.school.exception.InvalidParamsException;
 import ru.hogwarts.school.exception.StudentNotFoundException;
+import ru.hogwarts.school.exception.VersionConflictException;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
 import ru.hogwarts.school.repository.StudentRepository;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
-import java.util.stream.Stream;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static ru.hogwarts.school.mapper.FacultyMapper.mapFromDTO;
@@ -32,9 +51,18 @@ class StudentServiceImplTest {
     @Mock
     private StudentRepository studentRepository;
 
+    @Mock
+    private AvatarRepository avatarRepository;
+
     @Mock
     private FacultyService facultyService;
 
+    @Mock
+    private FileCleanupService fileCleanupService;
+
+    @Spy
+    private PartitionedExecutor partitionedExecutor = new PartitionedExecutor(3, 10, Duration.ofSeconds(1), new SimpleMeterRegistry());
+
     @InjectMocks
     private StudentServiceImpl studentService;
 
@@ -51,7 +79,8 @@ class StudentServiceImplTest {
         testFacultyDTO = new FacultyDTO()
                 .setId(1L)
                 .setName(name)
-                .setColor(color);
+                .setColor(color)
+                .setVersion(0L);
         testStudentDTO = new StudentDTO()
                 .setId(1L)
                 .setName(name)
@@ -72,84 +101,190 @@ class StudentServiceImplTest {
     }
 
     @Test
-    void findByFacultyId_shouldReturnAllListForPrintOfFaculty() {
-        Collection<Student> students =
-                Stream.of(mock(Student.class), mock(Student.class), mock(Student.class)).toList();
-        when(studentRepository.findAllByFacultyId(anyLong())).thenReturn(students);
+    void findByFacultyId_shouldReturnPageOfFaculty() {
+        List<StudentDTO> students = List.of(testStudentDTO);
+        PageRequest page = PageRequest.of(0, 10, Sort.by("name"));
+        when(studentRepository.findAllByFacultyId(1L, page)).thenReturn(students);
 
-        Collection<StudentDTO> actual = studentService.findByFacultyId(anyLong());
+        Collection<StudentDTO> actual = studentService.findByFacultyId(1L, page);
 
-        verify(studentRepository, times(1)).findAllByFacultyId(anyLong());
-        assertIterableEquals(mapToDTO(students), actual);
+        verify(studentRepository, times(1)).findAllByFacultyId(1L, page);
+        assertIterableEquals(students, actual);
     }
 
     @Test
     void findByFacultyId_whenListForPrintNotFound_shouldThrowException() {
-        when(studentRepository.findAllByFacultyId(anyLong())).thenReturn(new ArrayList<>());
+        when(studentRepository.findAllByFacultyId(anyLong(), any(Pageable.class))).thenReturn(new ArrayList<>());
 
-        assertThrows(StudentNotFoundException.class, () -> studentService.findByFacultyId(anyLong()));
+        assertThrows(StudentNotFoundException.class, () -> studentService.findByFacultyId(1L, PageRequest.of(0, 10)));
+        assertTrue(studentService.findByFacultyId(1L, PageRequest.of(3, 10)).isEmpty());
     }
 
     @Test
-    void findByAgeBetween_shouldReturnAllListForPrintWithThisAge() {
-        Collection<Student> students =
-                Stream.of(mock(Student.class), mock(Student.class), mock(Student.class)).toList();
-        when(studentRepository.findByAgeBetween(anyInt(), anyInt())).thenReturn(students);
+    void findByFacultyId_whenInvalidPage_shouldThrowException() {
+        assertThrows(InvalidParamsException.class, () -> studentService.findByFacultyId(1L, PageRequest.of(0, 1001)));
+        assertThrows(InvalidParamsException.class, () -> studentService.findByFacultyId(1L, PageRequest.of(0, 10, Sort.by("faculty"))));
+        assertThrows(InvalidParamsException.class, () -> studentService.findByFacultyIdAfter(1L, -1, 10));
+        verifyNoInteractions(studentRepository);
+    }
 
-        Collection<StudentDTO> actual = studentService.findByAgeBetween(anyInt(), anyInt());
+    @Test
+    void findByFacultyIdAfter_shouldUseKeyset() {
+        List<StudentDTO> students = List.of(testStudentDTO);
+        when(studentRepository.findAllByFacultyIdAfter(1L, 5L, Limit.of(10))).thenReturn(students);
 
-        verify(studentRepository, times(1)).findByAgeBetween(anyInt(), anyInt());
-        assertIterableEquals(mapToDTO(students), actual);
+        assertIterableEquals(students, studentService.findByFacultyIdAfter(1L, 5L, 10));
     }
 
     @Test
-    void findByAgeBetween_whenListForPrintNotFound_shouldThrowException() {
-        when(studentRepository.findByAgeBetween(anyInt(), anyInt())).thenReturn(new ArrayList<>());
+    void findFieldsByFacultyId_shouldPassDistinctKnownFields() {
+        List<Map<String, Object>> rows = List.of(Map.of("name", "Harry"));
+        PageRequest page = PageRequest.of(0, 10);
+        when(studentRepository.findFieldsByFacultyId(1L, Set.of("name"), null, page)).thenReturn(rows);
+
+        assertIterableEquals(rows, studentService.findFieldsByFacultyId(1L, List.of("name", "name"), null, page));
+        assertThrows(InvalidParamsException.class, () -> studentService.findFieldsByFacultyId(1L, List.of("name", "avatar"), null, page));
+        assertThrows(InvalidParamsException.class, () -> studentService.findFieldsByFacultyId(1L, List.of(), null, page));
+    }
 
-        assertThrows(StudentNotFoundException.class, () -> studentService.findByAgeBetween(anyInt(), anyInt()));
+    @Test
+    void search_shouldPassCombinedFiltersToRepository() {
+        List<StudentDTO> students = List.of(testStudentDTO);
+        StudentQuery query = new StudentQuery()
+                .setAgeFrom(11)
+                .setAgeTo(14)
+                .setFacultyId(1L)
+                .setNamePrefix("ha")
+                .setSort(Sort.by(Sort.Direction.DESC, "age"));
+        when(studentRepository.search(query)).thenReturn(students);
+
+        Collection<StudentDTO> actual = studentService.search(query);
+
+        verify(studentRepository, times(1)).search(query);
+        verify(studentRepository, never()).getCountOfStudents();
+        assertEquals(StudentService.DEFAULT_PAGE_LIMIT, query.getLimit());
+        assertIterableEquals(students, actual);
     }
 
     @Test
-    void findByAge_shouldReturnAllListForPrintWithThisAge() {
-        Collection<Student> students =
-                Stream.of(mock(Student.class), mock(Student.class), mock(Student.class)).toList();
-        when(studentRepository.findByAge(anyInt())).thenReturn(students);
+    void search_whenNothingFound_shouldThrowException() {
+        when(studentRepository.search(any(StudentQuery.class))).thenReturn(new ArrayList<>());
 
-        Collection<StudentDTO> actual = studentService.findByAge(anyInt());
+        assertThrows(StudentNotFoundException.class, () -> studentService.search(new StudentQuery().setAge(99)));
+    }
 
-        verify(studentRepository, times(1)).findByAge(anyInt());
-        assertIterableEquals(mapToDTO(students), actual);
+    @Test
+    void search_whenLastPageReached_shouldReturnEmptyCollection() {
+        when(studentRepository.search(any(StudentQuery.class))).thenReturn(new ArrayList<>());
+
+        assertTrue(studentService.search(new StudentQuery().setAfter(5L).setLimit(10)).isEmpty());
     }
 
     @Test
-    void findByAge_whenListForPrintNotFound_shouldThrowException() {
-        when(studentRepository.findByAge(anyInt())).thenReturn(new ArrayList<>());
+    void search_whenParamsInvalid_shouldThrowException() {
+        List<StudentQuery> invalid = List.of(
+                new StudentQuery().setLimit(0),
+                new StudentQuery().setLimit(1001),
+                new StudentQuery().setAfter(-1L),
+                new StudentQuery().setAge(-1),
+                new StudentQuery().setAgeFrom(15).setAgeTo(11),
+                new StudentQuery().setNamePrefix(" "),
+                new StudentQuery().setSort(Sort.by("faculty")),
+                new StudentQuery().setAfter(5L).setSort(Sort.by("name")));
+        for (StudentQuery query : invalid) {
+            assertThrows(InvalidParamsException.class, () -> studentService.search(query), query.toString());
+        }
+        verifyNoInteractions(studentRepository);
+    }
 
-        assertThrows(StudentNotFoundException.class, () -> studentService.findByAge(anyInt()));
+    @Test
+    void getNamesStartingWith_shouldSearchByUpperCasedPrefix() {
+        List<String> names = List.of("HARRY", "HERMIONE");
+        when(studentRepository.findAllNamesByPattern("H%")).thenReturn(names);
+
+        Collection<String> actual = studentService.getNamesStartingWith('h');
+
+        verify(studentRepository, never()).findAll();
+        assertIterableEquals(names, actual);
+    }
+
+    @Test
+    void getNamesStartingWith_whenNamesNotFound_shouldThrowException() {
+        when(studentRepository.findAllNamesByPattern("Z%")).thenReturn(List.of());
+
+        assertThrows(StudentNotFoundException.class, () -> studentService.getNamesStartingWith('z'));
+    }
+
+    @Test
+    void getNamesStartingWith_whenParamsInvalid_shouldThrowException() {
+        assertThrows(InvalidParamsException.class, () -> studentService.getNamesStartingWith('1'));
+        assertThrows(InvalidParamsException.class, () -> studentService.getNamesStartingWith(" ", 10, 0));
+        assertThrows(InvalidParamsException.class, () -> studentService.getNamesStartingWith("ha", 10, -1));
+        verifyNoInteractions(studentRepository);
     }
 
     @Test
     void getFacultyOfStudent_shouldReturnFacultyOfThisStudent() {
-        when(studentRepository.findById(testStudent.getId())).thenReturn(Optional.of(testStudent));
+        when(studentRepository.findWithFacultyById(testStudent.getId())).thenReturn(Optional.of(testStudent));
 
         FacultyDTO actual = studentService.getFacultyOfStudent(testStudent.getId());
 
-        verify(studentRepository, times(1)).findById(testStudent.getId());
+        verify(studentRepository, times(1)).findWithFacultyById(testStudent.getId());
         assertEquals(testFacultyDTO, actual);
     }
 
     @Test
     void getFacultyOfStudent_whenStudentNotFound_shouldThrowException() {
-        when(studentRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(studentRepository.findWithFacultyById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(StudentNotFoundException.class, () -> studentService.getFacultyOfStudent(anyLong()));
     }
 
+    @Test
+    void getAverageAgeOfStudents_shouldUseAggregateQuery() {
+        when(studentRepository.getAverageAgeOfStudents()).thenReturn(12.5);
+
+        double actual = studentService.getAverageAgeOfStudents();
+
+        verify(studentRepository, never()).findAll();
+        assertEquals(12.5, actual);
+    }
+
+    @Test
+    void getAverageAgeOfStudents_whenStudentsNotFound_shouldThrowException() {
+        when(studentRepository.getAverageAgeOfStudents()).thenReturn(null);
+
+        assertThrows(StudentNotFoundException.class, () -> studentService.getAverageAgeOfStudents());
+    }
+
+    @Test
+    void getStatistics_shouldReturnOverallAndFacultyStatistics() {
+        List<FacultyAgeStatisticsDTO> byFaculty = List.of(new FacultyAgeStatisticsDTO(1L, 2, 12.5, 12, 13));
+        when(studentRepository.getStatistics()).thenReturn(new StudentStatisticsDTO(2L, 12.5, 12, 13));
+        when(studentRepository.getStatisticsByFaculty()).thenReturn(byFaculty);
+
+        StudentStatisticsDTO actual = studentService.getStatistics();
+
+        assertEquals(2, actual.getCount());
+        assertEquals(12.5, actual.getAverageAge());
+        assertEquals(12, actual.getMinAge());
+        assertEquals(13, actual.getMaxAge());
+        assertIterableEquals(byFaculty, actual.getFaculties());
+    }
+
+    @Test
+    void getStatistics_whenStudentsNotFound_shouldThrowException() {
+        when(studentRepository.getStatistics()).thenReturn(new StudentStatisticsDTO(0L, null, null, null));
+
+        assertThrows(StudentNotFoundException.class, () -> studentService.getStatistics());
+        verify(studentRepository, never()).getStatisticsByFaculty();
+    }
+
     @Test
     void testPrintParallel() {
-        when(studentRepository.findAll()).thenReturn(testStudents);
+        when(studentRepository.findAllStudents()).thenReturn(new ArrayList<>(mapToDTO(testStudents)));
 
-        String output = captureSystemOutput(() -> studentService.printParallel());
+        String output = capturePrintedLines(() -> studentService.printParallel());
         System.out.println("Ожидаемый результат:\n" + output + " конец!");
 
         assertTrue(output.contains("Student1"));
@@ -162,9 +297,9 @@ class StudentServiceImplTest {
 
     @Test
     public void testPrintSynchronized() {
-        when(studentRepository.findAll()).thenReturn(testStudents);
+        when(studentRepository.findAllStudents()).thenReturn(new ArrayList<>(mapToDTO(testStudents)));
 
-        String output = captureSystemOutput(() -> studentService.printSynchronized());
+        String output = capturePrintedLines(() -> studentService.printSynchronized());
         System.out.println("Ожидаемый результат:\n" + output + " конец!");
 
         assertTrue(output.contains("Student1"));
@@ -175,6 +310,22 @@ class StudentServiceImplTest {
         assertTrue(output.contains("Student6"));
     }
 
+    @Test
+    void printSynchronized_shouldNumberLinesInOutputOrder() {
+        when(studentRepository.findAllStudents()).thenReturn(new ArrayList<>(mapToDTO(testStudents)));
+
+        String first = capturePrintedLines(() -> studentService.printSynchronized());
+        String second = capturePrintedLines(() -> studentService.printSynchronized());
+
+        for (String output : List.of(first, second)) {
+            String[] lines = output.strip().split("\\R");
+            assertEquals(6, lines.length);
+            for (int i = 0; i < lines.length; i++) {
+                assertTrue(lines[i].startsWith((i + 1) + ". "), lines[i]);
+            }
+        }
+    }
+
     @Test
     void add_shouldReturnNewStudent() {
         when(facultyService.getById(1L)).thenReturn(testFacultyDTO);
@@ -191,99 +342,167 @@ class StudentServiceImplTest {
 
     @Test
     void getAll_shouldReturnAllListForPrint() {
-        List<Student> students = Stream.of(mock(Student.class), mock(Student.class), mock(Student.class)).toList();
-        when(studentRepository.findAll()).thenReturn(students);
+        List<StudentDTO> students = List.of(testStudentDTO);
+        when(studentRepository.findAllStudents()).thenReturn(students);
 
         Collection<StudentDTO> actual = studentService.getAll();
 
-        verify(studentRepository, times(1)).findAll();
-        assertIterableEquals(mapToDTO(students), actual);
+        verify(studentRepository, times(1)).findAllStudents();
+        verify(studentRepository, never()).findAll();
+        assertIterableEquals(students, actual);
     }
 
     @Test
     void getAll_whenListForPrintNotFound_shouldThrowException() {
-        when(studentRepository.findAll()).thenReturn(new ArrayList<>());
+        when(studentRepository.findAllStudents()).thenReturn(new ArrayList<>());
 
         assertThrows(StudentNotFoundException.class, () -> studentService.getAll());
     }
 
     @Test
     void getById_shouldReturnFoundStudent() {
-        when(studentRepository.findById(testStudent.getId())).thenReturn(Optional.of(testStudent));
+        when(studentRepository.findStudentById(testStudent.getId())).thenReturn(Optional.of(testStudentDTO));
 
         StudentDTO actual = studentService.getById(testStudent.getId());
 
-        verify(studentRepository, times(1)).findById(anyLong());
-        assertEquals(mapToDTO(testStudent), actual);
+        verify(studentRepository, times(1)).findStudentById(anyLong());
+        verify(studentRepository, never()).findById(anyLong());
+        assertEquals(testStudentDTO, actual);
     }
 
     @Test
     void getById_whenStudentNotFound_shouldThrowException() {
-        when(studentRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(studentRepository.findStudentById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(StudentNotFoundException.class, () -> studentService.getById(anyLong()));
     }
 
     @Test
     void change_shouldReturnChangedStudent() {
-        when(studentRepository.findById(testStudent.getId())).thenReturn(Optional.of(testStudent));
+        when(studentRepository.findWithAvatarById(testStudent.getId())).thenReturn(Optional.of(testStudent));
         Student expected = new Student()
                 .setId(testStudent.getId())
                 .setName("new name")
                 .setAge(15);
-        when(studentRepository.save(any(Student.class))).thenReturn(expected);
+        when(studentRepository.saveAndFlush(any(Student.class))).thenReturn(expected);
 
         StudentDTO actual = studentService.change(mapToDTO(expected));
 
-        verify(studentRepository, times(1)).save(any(Student.class));
-        verify(studentRepository, times(1)).findById(anyLong());
+        verify(studentRepository, times(1)).saveAndFlush(any(Student.class));
+        verify(studentRepository, times(1)).findWithAvatarById(anyLong());
         assertEquals(expected.getName(), actual.getName());
         assertEquals(expected.getAge(), actual.getAge());
         assertEquals(testStudent.getName(), actual.getName());
         assertEquals(testStudent.getAge(), actual.getAge());
     }
 
+    @Test
+    void change_whenVersionIsStale_shouldThrowException() {
+        testStudent.setVersion(2);
+        when(studentRepository.findWithAvatarById(testStudent.getId())).thenReturn(Optional.of(testStudent));
+
+        assertThrows(VersionConflictException.class, () -> studentService.change(testStudentDTO.setVersion(1L)));
+        verify(studentRepository, never()).saveAndFlush(any(Student.class));
+    }
+
+    @Test
+    void change_whenConcurrentlyModified_shouldThrowException() {
+        when(studentRepository.findWithAvatarById(testStudent.getId())).thenReturn(Optional.of(testStudent));
+        when(studentRepository.saveAndFlush(any(Student.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Student.class, testStudent.getId()));
+
+        assertThrows(VersionConflictException.class, () -> studentService.change(testStudentDTO));
+    }
+
+    @Test
+    void patch_shouldReturnNextVersion() {
+        when(studentRepository.patch(1L, 3L, "new name", null)).thenReturn(1);
+
+        assertEquals(4L, studentService.patch(1L, 3L, new StudentPatchDTO().setName("new name")));
+        verify(studentRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void patch_whenVersionIsStale_shouldThrowException() {
+        when(studentRepository.patch(1L, 3L, null, 15)).thenReturn(0);
+        when(studentRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(VersionConflictException.class, () -> studentService.patch(1L, 3L, new StudentPatchDTO().setAge(15)));
+    }
+
+    @Test
+    void patch_whenStudentNotFound_shouldThrowException() {
+        when(studentRepository.patch(1L, 3L, null, 15)).thenReturn(0);
+        when(studentRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(StudentNotFoundException.class, () -> studentService.patch(1L, 3L, new StudentPatchDTO().setAge(15)));
+    }
+
+    @Test
+    void patch_whenParamsAreInvalid_shouldThrowException() {
+        assertThrows(InvalidParamsException.class, () -> studentService.patch(1L, 3L, new StudentPatchDTO()));
+        assertThrows(InvalidParamsException.class, () -> studentService.patch(1L, 3L, new StudentPatchDTO().setName(" ")));
+        assertThrows(InvalidParamsException.class, () -> studentService.patch(1L, 3L, new StudentPatchDTO().setAge(-1)));
+        verifyNoInteractions(studentRepository);
+    }
+
     @Test
     void change_whenStudentNotFound_shouldThrowException() {
-        when(studentRepository.findById(testStudentDTO.getId())).thenReturn(Optional.empty());
+        when(studentRepository.findWithAvatarById(testStudentDTO.getId())).thenReturn(Optional.empty());
 
         assertThrows(StudentNotFoundException.class, () -> studentService.change(testStudentDTO));
     }
 
     @Test
     void deleteById_shouldReturnDeletedStudent() {
-        when(studentRepository.findById(testStudent.getId())).thenReturn(Optional.of(testStudent));
+        when(studentRepository.findStudentById(testStudent.getId())).thenReturn(Optional.of(testStudentDTO));
+        when(avatarRepository.findFileByStudentId(testStudent.getId())).thenReturn(Optional.empty());
 
         StudentDTO actual = studentService.deleteById(testStudent.getId());
 
-        verify(studentRepository, times(1)).delete(any(Student.class));
-        assertEquals(mapToDTO(testStudent), actual);
+        verify(studentRepository, times(1)).deleteStudentById(testStudent.getId());
+        verify(studentRepository, never()).delete(any(Student.class));
+        verifyNoInteractions(fileCleanupService);
+        assertEquals(testStudentDTO, actual);
     }
 
     @Test
-    void deleteById_whenStudentNotFound_shouldThrowException() {
-        when(studentRepository.findById(anyLong())).thenReturn(Optional.empty());
+    void deleteById_withAvatar_shouldScheduleFileCleanup() {
+        AvatarFileDTO avatar = new AvatarFileDTO(testStudent.getId(), "avatars/1.png");
+        when(studentRepository.findStudentById(testStudent.getId())).thenReturn(Optional.of(testStudentDTO));
+        when(avatarRepository.findFileByStudentId(testStudent.getId())).thenReturn(Optional.of(avatar));
 
-        assertThrows(StudentNotFoundException.class, () -> studentService.deleteById(anyLong()));
+        studentService.deleteById(testStudent.getId());
+
+        InOrder inOrder = inOrder(fileCleanupService, avatarRepository, studentRepository);
+        inOrder.verify(fileCleanupService).schedule(avatar);
+        inOrder.verify(avatarRepository).deleteAvatarByStudentId(testStudent.getId());
+        inOrder.verify(studentRepository).deleteStudentById(testStudent.getId());
     }
 
-    @SneakyThrows
-    private String captureSystemOutput(Runnable task) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        PrintStream originalOut = System.out;
-        System.setOut(new PrintStream(out));
-        CountDownLatch latch = new CountDownLatch(1);
+    @Test
+    void deleteById_whenStudentNotFound_shouldThrowException() {
+        when(studentRepository.findStudentById(anyLong())).thenReturn(Optional.empty());
 
-        try {
-            new Thread(() -> {
-                task.run();
-                latch.countDown();
-            }).start();
+        assertThrows(StudentNotFoundException.class, () -> studentService.deleteById(1L));
+        verify(studentRepository, never()).deleteStudentById(anyLong());
+        verifyNoInteractions(avatarRepository, fileCleanupService);
+    }
 
-            latch.await();
+    private String capturePrintedLines(Runnable task) {
+        Logger logger = (Logger) LoggerFactory.getLogger(StudentServiceImpl.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            task.run();
         } finally {
-            System.setOut(originalOut);
+            logger.detachAppender(appender);
         }
-        return out.toString();
+        return appender.list.stream()
+                .filter(event -> event.getLevel() == Level.INFO)
+                .map(ILoggingEvent::getFormattedMessage)
+                .filter(message -> message.matches("\\d+\\. .*"))
+                .collect(Collectors.joining("\n"));
     }
 }
\ No newline at end of file
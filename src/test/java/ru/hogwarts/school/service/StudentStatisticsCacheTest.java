@@ -0,0 +1,94 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.StudentDTO;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.cache.type=simple")
+class StudentStatisticsCacheTest {
+    @SpyBean
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private FacultyService facultyService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Faculty faculty;
+
+    @BeforeEach
+    void init() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        faculty = facultyRepository.save(new Faculty()
+                .setName("test faculty")
+                .setColor("test color"));
+        studentRepository.save(new Student()
+                .setName("test student")
+                .setAge(12)
+                .setFaculty(faculty));
+        clearInvocations(studentRepository);
+    }
+
+    @Test
+    void getAverageAgeOfStudents_shouldBeServedFromCache() {
+        assertEquals(12, studentService.getAverageAgeOfStudents());
+        assertEquals(12, studentService.getAverageAgeOfStudents());
+
+        verify(studentRepository, times(1)).getAverageAgeOfStudents();
+    }
+
+    @Test
+    void add_shouldEvictStatistics() {
+        assertEquals(12, studentService.getAverageAgeOfStudents());
+
+        studentService.add(new StudentDTO()
+                .setName("another student")
+                .setAge(14)
+                .setFacultyId(faculty.getId()));
+
+        assertEquals(13, studentService.getAverageAgeOfStudents());
+        assertEquals(2, studentService.getStatistics().getCount());
+        verify(studentRepository, times(2)).getAverageAgeOfStudents();
+    }
+
+    @Test
+    void studentWrites_shouldEvictFacultyStatistics() {
+        assertEquals(1, facultyService.getStatistics().iterator().next().getStudentCount());
+
+        StudentDTO added = studentService.add(new StudentDTO()
+                .setName("another student")
+                .setAge(14)
+                .setFacultyId(faculty.getId()));
+
+        assertEquals(2, facultyService.getStatistics().iterator().next().getStudentCount());
+
+        studentService.deleteById(added.getId());
+
+        assertEquals(1, facultyService.getStatistics().iterator().next().getStudentCount());
+    }
+}